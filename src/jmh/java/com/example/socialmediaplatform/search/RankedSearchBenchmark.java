@@ -0,0 +1,90 @@
+package com.example.socialmediaplatform.search;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Per-query latency of relevance ranked search: block-max WAND (rank) against scoring every match
+// (rankExhaustive) on a synthetic corpus with a Zipf-like vocabulary, posts created in id order and a
+// skewed like distribution. Setup checks that both return the same top-k scores and prints how many
+// documents each one scored; the "scored" counter reports the same per invocation.
+//
+//   ./gradlew jmh
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RankedSearchBenchmark {
+
+    @Param({"100000"})
+    public int posts;
+
+    @Param({"10", "100"})
+    public int k;
+
+    // a common term, a rare term, a conjunction, a disjunction and a phrase
+    @Param({"w1", "w400", "w1 w7", "w3 OR w90", "\"w2 w5\""})
+    public String query;
+
+    private InvertedIndex index;
+    private SearchQuery parsed;
+    private long now;
+    private final Ranking ranking = new Ranking(1.2, 0.75, 1.0, 72, 1.0, 50);
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Scored {
+        public long scored;
+    }
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        index = new InvertedIndex(0.25);
+        int vocabulary = 5000;
+        for (long id = 1; id <= posts; id++) {
+            StringBuilder content = new StringBuilder();
+            int length = 5 + random.nextInt(30);
+            for (int i = 0; i < length; i++) {
+                // rank ~ 1/u gives a Zipf-like term distribution
+                int term = (int) Math.min(vocabulary, 1 / (random.nextDouble() + 1e-4));
+                content.append('w').append(term).append(' ');
+            }
+            long likes = (long) (Math.pow(random.nextDouble(), 6) * 2000);
+            index.add(id, content.toString(), id * 60, likes); // a post a minute
+        }
+        now = (posts + 1) * 60L;
+        parsed = SearchQuery.parse(query);
+
+        InvertedIndex.TopDocs wand = index.rank(parsed, k, ranking, now);
+        InvertedIndex.TopDocs exhaustive = index.rankExhaustive(parsed, k, ranking, now);
+        if (!Arrays.equals(wand.scores(), exhaustive.scores())) {
+            throw new IllegalStateException("WAND and exhaustive top-" + k + " differ for " + query);
+        }
+        System.out.printf("%n%s top-%d: identical to exhaustive, scored %d of %d matching documents%n",
+                query, k, wand.scored(), exhaustive.scored());
+    }
+
+    @Benchmark
+    public InvertedIndex.TopDocs wand(Scored counter) {
+        InvertedIndex.TopDocs top = index.rank(parsed, k, ranking, now);
+        counter.scored += top.scored();
+        return top;
+    }
+
+    @Benchmark
+    public InvertedIndex.TopDocs exhaustive(Scored counter) {
+        InvertedIndex.TopDocs top = index.rankExhaustive(parsed, k, ranking, now);
+        counter.scored += top.scored();
+        return top;
+    }
+
+    @Benchmark
+    public long[] booleanMatch() {
+        return index.match(parsed);
+    }
+}
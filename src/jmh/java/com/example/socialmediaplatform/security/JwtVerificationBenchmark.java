@@ -0,0 +1,83 @@
+package com.example.socialmediaplatform.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.lang.reflect.Field;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Cost of authenticating one request's token:
+//   legacy   - what the filter used to do: decode the secret and build a parser twice, parse twice
+//   uncached - JwtTokenProvider.verify with a different token every call (one parse, shared key and parser)
+//   cached   - JwtTokenProvider.verify with a repeated token (hash lookup only)
+//
+//   ./gradlew jmh
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "E578C8018A86D4D41E39877493435DA5E81F6A0AFCC402460BA4C9051E7F425B";
+    private static final int DISTINCT_TOKENS = 4096;
+
+    private JwtTokenProvider provider;
+    private JwtTokenProvider uncachedProvider;
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        provider = provider(1_000_000);
+        uncachedProvider = provider(0); // cleared on every insert, and the tokens rotate
+
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        Date expiry = new Date(System.currentTimeMillis() + 3_600_000L);
+        token = Jwts.builder().subject("zeerak").issuedAt(new Date()).expiration(expiry).signWith(key).compact();
+        tokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = Jwts.builder().subject("user" + i).issuedAt(new Date()).expiration(expiry).signWith(key).compact();
+        }
+    }
+
+    private static JwtTokenProvider provider(int cacheMaxTokens) throws Exception {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        set(provider, "jwtSecret", SECRET);
+        set(provider, "jwtExpirationDate", 3_600_000L);
+        set(provider, "cacheMaxTokens", cacheMaxTokens);
+        set(provider, "meterRegistry", new SimpleMeterRegistry());
+        provider.init();
+        return provider;
+    }
+
+    private static void set(JwtTokenProvider provider, String field, Object value) throws Exception {
+        Field f = JwtTokenProvider.class.getDeclaredField(field);
+        f.setAccessible(true);
+        f.set(provider, value);
+    }
+
+    @Benchmark
+    public String legacy() {
+        Jwts.parser().verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build().parse(token);
+        return Jwts.parser().verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build()
+                .parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String uncached() {
+        return uncachedProvider.verify(tokens[next++ & (DISTINCT_TOKENS - 1)]).getSubject();
+    }
+
+    @Benchmark
+    public String cached() {
+        return provider.verify(token).getSubject();
+    }
+}
@@ -2,20 +2,28 @@ package com.example.socialmediaplatform.controller;
 
 import com.example.socialmediaplatform.dto.CommentRequestDTO;
 import com.example.socialmediaplatform.dto.CommentResponseDTO;
+import com.example.socialmediaplatform.dto.ImportResultDTO;
+import com.example.socialmediaplatform.dto.PostCursor;
 import com.example.socialmediaplatform.dto.PostRequestDTO;
 import com.example.socialmediaplatform.dto.PostResponseDTO;
 import com.example.socialmediaplatform.model.Post;
+import com.example.socialmediaplatform.service.ExportService;
+import com.example.socialmediaplatform.service.ImportService;
 import com.example.socialmediaplatform.service.PostService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +36,12 @@ public class PostController {
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ImportService importService;
+
     //`POST /posts` - Create a new post
     @PostMapping
     public ResponseEntity<PostResponseDTO> createPost(@RequestBody PostRequestDTO requestDTO) {
@@ -43,14 +57,24 @@ public class PostController {
     }
 
     //`GET /posts`
+    // Sending `after` (empty for the first page) switches to cursor mode: newest first, no COUNT query.
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllPosts(
             @RequestParam(required = false) String keyword,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "3") int size
+            @RequestParam(defaultValue = "3") int size,
+            @RequestParam(required = false) String after
     ) {
         log.info("PostController - getAllPosts()");
        try {
+            if (after != null) {
+                PostCursor cursor = PostCursor.decode(after);
+                Slice<PostResponseDTO> slice = (keyword == null)
+                        ? postService.findAllAfter(cursor, size)
+                        : postService.searchAfter(keyword, cursor, size);
+                return new ResponseEntity<>(sliceResponse(slice), HttpStatus.OK);
+            }
+
             List<PostResponseDTO> posts;
             Pageable paging = PageRequest.of(page, size);
 
@@ -69,6 +93,8 @@ public class PostController {
             response.put("totalPages", pagePosts.getTotalPages());
 
             return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -89,6 +115,23 @@ public class PostController {
         return ResponseEntity.noContent().build();
     }
 
+    //`GET /posts/export` - Every post as NDJSON (application/x-ndjson), streamed with constant memory
+    @GetMapping("/export")
+    public void exportPosts(HttpServletResponse response) throws IOException {
+        log.info("PostController - exportPosts()");
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        exportService.exportPosts(response.getOutputStream());
+    }
+
+    //`POST /posts/import` - Bulk import of posts (author username, content, createdAt) from NDJSON or CSV (text/csv);
+    // pass `importId` to resume an import
+    @PostMapping("/import")
+    public ResponseEntity<ImportResultDTO> importPosts(@RequestParam(required = false) String importId, HttpServletRequest request) throws IOException {
+        log.info("PostController - importPosts()");
+        return ResponseEntity.ok(importService.importRecords(ImportService.Kind.POSTS, importId, request.getInputStream(), request.getContentType()));
+    }
+
     //`GET` /posts/user/{userId} - Get Posts By User Id
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<PostResponseDTO>> getPostsByUserId(@PathVariable Long userId) {
@@ -108,23 +151,40 @@ public class PostController {
         return ResponseEntity.ok(postService.likePost(id));
     }
 
+    //`DELETE /posts/{id}/like` - Unlike a post
+    @DeleteMapping("/{id}/like")
+    public ResponseEntity<PostResponseDTO> unlikePost(@PathVariable Long id){
+        return ResponseEntity.ok(postService.unlikePost(id));
+    }
+
     //`POST /posts/search` - Search for posts based on keywords in the title or content with pagination.
+    // `keyword` takes terms (all must match), "quoted phrases" and OR between alternatives.
+    // Sending `after` (empty for the first page) switches to cursor mode, as for `GET /posts`.
     @PostMapping("/search")
     public ResponseEntity<Map<String, Object>> search(
             @RequestParam(required = false) String keyword,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after
     ){
         log.info("PostController - search()");
         try {
+            if (after != null) {
+                PostCursor cursor = PostCursor.decode(after);
+                Slice<PostResponseDTO> slice = (keyword == null)
+                        ? postService.findAllAfter(cursor, size)
+                        : postService.searchAfter(keyword, cursor, size);
+                return new ResponseEntity<>(sliceResponse(slice), HttpStatus.OK);
+            }
+
             List<PostResponseDTO> posts;
-            Pageable paging = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "content"));
 
+            // matches keep the index order (newest first), sorting them by content is meaningless
             Page<PostResponseDTO> pagePosts;
             if (keyword == null)
-                pagePosts = postService.findAll(paging);
+                pagePosts = postService.findAll(PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "content")));
             else
-                pagePosts = postService.search(keyword, paging);
+                pagePosts = postService.search(keyword, PageRequest.of(page, size));
 
             posts = pagePosts.getContent();
 
@@ -135,8 +195,20 @@ public class PostController {
             response.put("totalPages", pagePosts.getTotalPages());
 
             return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    private Map<String, Object> sliceResponse(Slice<PostResponseDTO> slice) {
+        List<PostResponseDTO> posts = slice.getContent();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("posts", posts);
+        response.put("hasNext", slice.hasNext());
+        response.put("nextCursor", (slice.hasNext() && !posts.isEmpty()) ? PostCursor.of(posts.get(posts.size() - 1)).encode() : null);
+        return response;
+    }
 }
@@ -3,7 +3,13 @@ package com.example.socialmediaplatform.controller;
 import com.example.socialmediaplatform.dto.*;
 import com.example.socialmediaplatform.model.Post;
 import com.example.socialmediaplatform.model.User;
+import com.example.socialmediaplatform.service.ExportService;
+import com.example.socialmediaplatform.service.ImportService;
+import com.example.socialmediaplatform.service.SuggestionService;
+import com.example.socialmediaplatform.service.TimelineService;
 import com.example.socialmediaplatform.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -13,6 +19,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +32,18 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ImportService importService;
+
     //`POST /users/login` - Authenticate a user and generate a JWT
     @PostMapping("/login")
     public ResponseEntity<JwtAuthResponse> login(@RequestBody LoginDto loginDto){
@@ -51,6 +70,37 @@ public class UserController {
         return ResponseEntity.ok(userService.getUserById(id));
     }
 
+    //`GET /users/{id}?view=summary` - Profile with post/follower/following/like counts, without related lists.
+    // The lists are served by `/posts/user/{id}`, `/users/{id}/followers` and `/users/{id}/following`.
+    @GetMapping(value = "/{id}", params = "view=summary")
+    public ResponseEntity<UserSummaryDTO> getUserSummary(@PathVariable Long id) {
+        log.info("User Controller - getUserSummary()");
+        return ResponseEntity.ok(userService.getUserSummary(id));
+    }
+
+    //`GET /users/export` - Every user as NDJSON (application/x-ndjson), streamed with constant memory
+    @GetMapping("/export")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        log.info("User Controller - exportUsers()");
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        exportService.exportUsers(response.getOutputStream());
+    }
+
+    //`POST /users/import` - Bulk import of users from NDJSON or CSV (text/csv); pass `importId` to resume an import
+    @PostMapping("/import")
+    public ResponseEntity<ImportResultDTO> importUsers(@RequestParam(required = false) String importId, HttpServletRequest request) throws IOException {
+        log.info("User Controller - importUsers()");
+        return ResponseEntity.ok(importService.importRecords(ImportService.Kind.USERS, importId, request.getInputStream(), request.getContentType()));
+    }
+
+    //`POST /users/follows/import` - Bulk import of follows (follower and following usernames) from NDJSON or CSV
+    @PostMapping("/follows/import")
+    public ResponseEntity<ImportResultDTO> importFollows(@RequestParam(required = false) String importId, HttpServletRequest request) throws IOException {
+        log.info("User Controller - importFollows()");
+        return ResponseEntity.ok(importService.importRecords(ImportService.Kind.FOLLOWS, importId, request.getInputStream(), request.getContentType()));
+    }
+
     @GetMapping
     public ResponseEntity<List<UserResponseDTO>> getAllUsers() {
         log.info("User Controller - getAllUsers()");
@@ -63,11 +113,18 @@ public class UserController {
         return ResponseEntity.ok(userService.updateUser(id, requestDTO));
     }
 
+    //`DELETE /users/{id}` - Mark a user deleted; its posts, comments, likes and follows are removed in the background
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
+    public ResponseEntity<UserDeletionDTO> deleteUser(@PathVariable Long id) {
         log.info("User Controller - deleteUser()");
-        userService.deleteUser(id);
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.accepted().body(userService.deleteUser(id));
+    }
+
+    //`GET /users/{id}/deletion` - Progress of a user's deletion
+    @GetMapping("/{id}/deletion")
+    public ResponseEntity<UserDeletionDTO> getDeletionProgress(@PathVariable Long id) {
+        log.info("User Controller - getDeletionProgress()");
+        return ResponseEntity.ok(userService.deletionProgress(id));
     }
 
     //`POST /users/{id}/follow` - Follow a user
@@ -91,6 +148,65 @@ public class UserController {
         return userService.getFollowing(id);
     }
 
+    //`GET /users/{id}/followers?after=` - Page of a user's followers, empty `after` for the first page
+    @GetMapping(value = "{id}/followers", params = "after")
+    public ResponseEntity<CursorPageDTO<FollowerResponseDTO>> getFollowersPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int size
+    ){
+        log.info("User Controller - getFollowersPage()");
+        return ResponseEntity.ok(userService.getFollowersPage(id, after, size));
+    }
+
+    //`GET /users/{id}/following?after=` - Page of the users followed by a user, empty `after` for the first page
+    @GetMapping(value = "{id}/following", params = "after")
+    public ResponseEntity<CursorPageDTO<FollowingResponseDTO>> getFollowingPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int size
+    ){
+        log.info("User Controller - getFollowingPage()");
+        return ResponseEntity.ok(userService.getFollowingPage(id, after, size));
+    }
+
+    //`GET /users/me/feed` - Home feed of the authenticated user, newest first. Pass `nextCursor` back as `after`.
+    @GetMapping("/me/feed")
+    public ResponseEntity<FeedResponseDTO> getFeed(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size
+    ){
+        log.info("User Controller - getFeed()");
+        return ResponseEntity.ok(timelineService.getHomeFeed(after, size));
+    }
+
+    //`GET /users/me/suggestions` - Accounts to follow, ranked by how many of the user's followings follow them
+    @GetMapping("/me/suggestions")
+    public ResponseEntity<List<SuggestionDTO>> getSuggestions(@RequestParam(defaultValue = "10") int size){
+        log.info("User Controller - getSuggestions()");
+        return ResponseEntity.ok(suggestionService.getSuggestions(size));
+    }
+
+    //`GET /users/typeahead?q=` - Users whose username or email starts with `q`, most followed first
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<UserTypeaheadDTO>> typeahead(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int size
+    ){
+        log.info("User Controller - typeahead()");
+        return ResponseEntity.ok(userService.typeahead(q, size));
+    }
+
+    //`GET /users/search/fuzzy?q=` - Users whose username is within one or two typos of `q`, closest first
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<List<FuzzyUserDTO>> fuzzySearch(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int size
+    ){
+        log.info("User Controller - fuzzySearch()");
+        return ResponseEntity.ok(userService.fuzzySearch(q, size));
+    }
+
     //`POST /users/search` - Search for users based on keywords in the username or email or bio with pagination.
     @PostMapping("/search")
     public ResponseEntity<Map<String, Object>> search(
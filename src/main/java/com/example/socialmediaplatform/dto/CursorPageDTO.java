@@ -0,0 +1,16 @@
+package com.example.socialmediaplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// One page of a keyset-paged list. `nextCursor` is null on the last page.
+@AllArgsConstructor
+@Getter
+@Setter
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private Long nextCursor;
+}
@@ -0,0 +1,15 @@
+package com.example.socialmediaplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+@Setter
+public class FeedResponseDTO {
+    private List<PostResponseDTO> posts;
+    private Long nextCursor; // pass back as `after` to fetch the next page, null when the feed is exhausted
+}
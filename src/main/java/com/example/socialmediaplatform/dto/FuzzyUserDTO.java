@@ -0,0 +1,16 @@
+package com.example.socialmediaplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@AllArgsConstructor
+@Getter
+@Setter
+public class FuzzyUserDTO {
+    private Long id;
+    private String username;
+    private int followers;
+    // edits between the query and the username
+    private int distance;
+}
@@ -0,0 +1,19 @@
+package com.example.socialmediaplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@AllArgsConstructor
+@Getter
+@Setter
+public class ImportResultDTO {
+    private String importId;
+    private String kind;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsSkipped;
+    private long rowsRejected;
+    private long elapsedMs;
+    private double rowsPerSecond;
+}
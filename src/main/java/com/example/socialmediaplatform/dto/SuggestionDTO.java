@@ -0,0 +1,15 @@
+package com.example.socialmediaplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@AllArgsConstructor
+@Getter
+@Setter
+public class SuggestionDTO {
+    private Long id;
+    private String username;
+    // accounts followed by the user that follow this one
+    private int mutualConnections;
+}
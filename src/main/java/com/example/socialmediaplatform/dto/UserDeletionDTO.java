@@ -0,0 +1,17 @@
+package com.example.socialmediaplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@AllArgsConstructor
+@Getter
+@Setter
+public class UserDeletionDTO {
+    private Long userId;
+    private String status;
+    private long postsDeleted;
+    private long commentsDeleted;
+    private long likesDeleted;
+    private long followsDeleted;
+}
@@ -0,0 +1,19 @@
+package com.example.socialmediaplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@AllArgsConstructor
+@Getter
+@Setter
+public class UserSummaryDTO {
+    private Long id;
+    private String username;
+    private String email;
+    private String bio;
+    private long posts;
+    private long followers;
+    private long following;
+    private long likes;
+}
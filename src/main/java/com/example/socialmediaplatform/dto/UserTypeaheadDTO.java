@@ -0,0 +1,14 @@
+package com.example.socialmediaplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@AllArgsConstructor
+@Getter
+@Setter
+public class UserTypeaheadDTO {
+    private Long id;
+    private String username;
+    private int followers;
+}
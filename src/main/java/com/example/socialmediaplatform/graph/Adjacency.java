@@ -0,0 +1,210 @@
+package com.example.socialmediaplatform.graph;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One direction of the follow graph: node id -> sorted ids of its neighbours.
+//
+// The bulk of the rows lives in an immutable compressed sparse row (CSR) snapshot: the sorted node ids, one
+// offset per node and all neighbour ids back to back in a single long[]. Rows changed since the snapshot are
+// kept as copy-on-write long[] overrides and folded into a new snapshot once there are `compactThreshold` of
+// them. Readers never lock; writers are serialised by the owning index.
+final class Adjacency {
+
+    private static final long[] EMPTY = new long[0];
+
+    static final class Csr {
+        static final Csr EMPTY_CSR = new Csr(EMPTY, new int[]{0}, EMPTY);
+
+        private final long[] nodes;   // sorted
+        private final int[] offsets;  // row i is neighbours[offsets[i], offsets[i + 1])
+        private final long[] neighbours;
+
+        private Csr(long[] nodes, int[] offsets, long[] neighbours) {
+            this.nodes = nodes;
+            this.offsets = offsets;
+            this.neighbours = neighbours;
+        }
+
+        // Builds a snapshot from parallel edge arrays, the first `size` entries of which are used.
+        static Csr of(long[] from, long[] to, int size) {
+            long[] sortedFrom = Arrays.copyOf(from, size);
+            Arrays.sort(sortedFrom);
+            int nodeCount = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || sortedFrom[i] != sortedFrom[i - 1]) {
+                    sortedFrom[nodeCount++] = sortedFrom[i];
+                }
+            }
+            long[] nodes = Arrays.copyOf(sortedFrom, nodeCount);
+
+            int[] offsets = new int[nodeCount + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[Arrays.binarySearch(nodes, from[i]) + 1]++;
+            }
+            for (int i = 0; i < nodeCount; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+
+            long[] neighbours = new long[size];
+            int[] fill = Arrays.copyOf(offsets, nodeCount);
+            for (int i = 0; i < size; i++) {
+                neighbours[fill[Arrays.binarySearch(nodes, from[i])]++] = to[i];
+            }
+            for (int i = 0; i < nodeCount; i++) {
+                Arrays.sort(neighbours, offsets[i], offsets[i + 1]);
+            }
+            return new Csr(nodes, offsets, neighbours);
+        }
+
+        int edgeCount() {
+            return neighbours.length;
+        }
+
+        private int indexOf(long node) {
+            return Arrays.binarySearch(nodes, node);
+        }
+
+        private long[] row(long node) {
+            int i = indexOf(node);
+            return i < 0 ? EMPTY : Arrays.copyOfRange(neighbours, offsets[i], offsets[i + 1]);
+        }
+    }
+
+    private final int compactThreshold;
+    private volatile Csr base = Csr.EMPTY_CSR;
+    private final Map<Long, long[]> overrides = new ConcurrentHashMap<>();
+
+    Adjacency(int compactThreshold) {
+        this.compactThreshold = compactThreshold;
+    }
+
+    // Snapshot of a row. The returned array must not be modified.
+    long[] neighbours(long node) {
+        long[] row = overrides.get(node);
+        return row != null ? row : base.row(node);
+    }
+
+    int degree(long node) {
+        long[] row = overrides.get(node);
+        if (row != null) {
+            return row.length;
+        }
+        Csr csr = base;
+        int i = csr.indexOf(node);
+        return i < 0 ? 0 : csr.offsets[i + 1] - csr.offsets[i];
+    }
+
+    // O(log n + log d)
+    boolean contains(long node, long neighbour) {
+        long[] row = overrides.get(node);
+        if (row != null) {
+            return Arrays.binarySearch(row, neighbour) >= 0;
+        }
+        Csr csr = base;
+        int i = csr.indexOf(node);
+        return i >= 0 && Arrays.binarySearch(csr.neighbours, csr.offsets[i], csr.offsets[i + 1], neighbour) >= 0;
+    }
+
+    long edgeCount() {
+        // approximate while overrides are pending
+        return base.edgeCount();
+    }
+
+    // Writers below are called with the owning index's lock held.
+
+    boolean add(long node, long neighbour) {
+        long[] row = neighbours(node);
+        int at = Arrays.binarySearch(row, neighbour);
+        if (at >= 0) {
+            return false;
+        }
+        int insert = -at - 1;
+        long[] updated = new long[row.length + 1];
+        System.arraycopy(row, 0, updated, 0, insert);
+        updated[insert] = neighbour;
+        System.arraycopy(row, insert, updated, insert + 1, row.length - insert);
+        override(node, updated);
+        return true;
+    }
+
+    boolean remove(long node, long neighbour) {
+        long[] row = neighbours(node);
+        int at = Arrays.binarySearch(row, neighbour);
+        if (at < 0) {
+            return false;
+        }
+        long[] updated = new long[row.length - 1];
+        System.arraycopy(row, 0, updated, 0, at);
+        System.arraycopy(row, at + 1, updated, at, row.length - at - 1);
+        override(node, updated);
+        return true;
+    }
+
+    void reset(Csr csr) {
+        base = csr;
+        overrides.clear();
+    }
+
+    private void override(long node, long[] row) {
+        overrides.put(node, row);
+        if (overrides.size() >= compactThreshold) {
+            compact();
+        }
+    }
+
+    // Folds the overrides into a new snapshot. Readers keep seeing the same rows throughout: the new snapshot
+    // is published before the overrides it contains are dropped.
+    private void compact() {
+        Csr old = base;
+        long[] changed = overrides.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+
+        int edges = old.edgeCount();
+        for (long node : changed) {
+            int k = old.indexOf(node);
+            edges += overrides.get(node).length - (k < 0 ? 0 : old.offsets[k + 1] - old.offsets[k]);
+        }
+        long[] nodes = new long[old.nodes.length + changed.length];
+        int[] offsets = new int[nodes.length + 1];
+        long[] neighbours = new long[edges];
+
+        // merge the two sorted node lists, overrides win
+        int n = 0, e = 0, i = 0, j = 0;
+        while (i < old.nodes.length || j < changed.length) {
+            long node;
+            long[] src;
+            int from, to;
+            if (j == changed.length || (i < old.nodes.length && old.nodes[i] < changed[j])) {
+                node = old.nodes[i];
+                src = old.neighbours;
+                from = old.offsets[i];
+                to = old.offsets[i + 1];
+                i++;
+            } else {
+                node = changed[j];
+                if (i < old.nodes.length && old.nodes[i] == node) {
+                    i++;
+                }
+                src = overrides.get(node);
+                from = 0;
+                to = src.length;
+                j++;
+            }
+            if (from == to) {
+                continue; // rows emptied by removals are dropped
+            }
+            nodes[n] = node;
+            offsets[n] = e;
+            System.arraycopy(src, from, neighbours, e, to - from);
+            e += to - from;
+            n++;
+        }
+        offsets[n] = e;
+
+        base = new Csr(Arrays.copyOf(nodes, n), Arrays.copyOf(offsets, n + 1), neighbours);
+        for (long node : changed) {
+            overrides.remove(node);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.socialmediaplatform.graph;
+
+import com.example.socialmediaplatform.model.Follow;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// JPA listener on Follow that mirrors inserted and removed follows into the SocialGraphIndex once their
+// transaction commits, whichever code path wrote them (a rolled back follow never reaches the index).
+@Component
+public class FollowIndexListener {
+
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+
+    @PostPersist
+    public void onPersist(Follow follow) {
+        long followerId = follow.getFollower().getId();
+        long followingId = follow.getFollowing().getId();
+        afterCommit(() -> socialGraphIndex.addFollow(followerId, followingId));
+    }
+
+    @PostRemove
+    public void onRemove(Follow follow) {
+        long followerId = follow.getFollower().getId();
+        long followingId = follow.getFollowing().getId();
+        afterCommit(() -> socialGraphIndex.removeFollow(followerId, followingId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.socialmediaplatform.graph;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+// In-memory copy of the `follows` table, held in both directions as CSR adjacency of primitive longs.
+// Answers follow checks, degrees and neighbour lists without touching the database. It is rebuilt from the
+// table at startup and kept current by FollowIndexListener as follows are committed or removed.
+@Slf4j
+@Component
+public class SocialGraphIndex {
+
+    // Connector/J streams a result set row by row only with this fetch size (unless useCursorFetch is set);
+    // any other value buffers the whole table in memory.
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.graph.compact-threshold:4096}")
+    private int compactThreshold;
+
+
+    private Adjacency following; // follower -> followed users
+    private Adjacency followers; // followed user -> followers
+    private final List<LongConsumer> followerRemovedListeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    void init() {
+        following = new Adjacency(compactThreshold);
+        followers = new Adjacency(compactThreshold);
+        Gauge.builder("graph.follows.edges", this, index -> index.following.edgeCount())
+                .description("Follow edges in the last compacted graph snapshot")
+                .register(meterRegistry);
+    }
+
+    public boolean isFollowing(long followerId, long followingId) {
+        return following.contains(followerId, followingId);
+    }
+
+    public int followerCount(long userId) {
+        return followers.degree(userId);
+    }
+
+    public int followingCount(long userId) {
+        return following.degree(userId);
+    }
+
+    // Sorted ids. The returned arrays must not be modified.
+    public long[] followersOf(long userId) {
+        return followers.neighbours(userId);
+    }
+
+    public long[] followingOf(long userId) {
+        return following.neighbours(userId);
+    }
+
+    public synchronized boolean addFollow(long followerId, long followingId) {
+        boolean added = following.add(followerId, followingId);
+        followers.add(followingId, followerId);
+        return added;
+    }
+
+    public synchronized boolean removeFollow(long followerId, long followingId) {
+        boolean removed = following.remove(followerId, followingId);
+        followers.remove(followingId, followerId);
+        if (removed) {
+            followerRemovedListeners.forEach(listener -> listener.accept(followingId));
+        }
+        return removed;
+    }
+
+    // Called with the followed user after each removed follow, under the index lock, so the follower count it
+    // reads is the one just left by the removal.
+    public void onFollowerRemoved(LongConsumer listener) {
+        followerRemovedListeners.add(listener);
+    }
+
+    // Drops every edge of a deleted user.
+    public synchronized void removeUser(long userId) {
+        for (long followed : following.neighbours(userId)) {
+            removeFollow(userId, followed);
+        }
+        for (long follower : followers.neighbours(userId)) {
+            removeFollow(follower, userId);
+        }
+    }
+
+    // Follows committed while the table is read wait for the lock and are applied on top of the new snapshot.
+    // Runs before the other startup rebuilds, which rank by follower counts.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long[][] edges = {new long[1024], new long[1024]};
+        int[] size = {0};
+
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("SELECT follower_id, following_id FROM follows",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAMING_FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            if (size[0] == edges[0].length) {
+                edges[0] = Arrays.copyOf(edges[0], size[0] * 2);
+                edges[1] = Arrays.copyOf(edges[1], size[0] * 2);
+            }
+            edges[0][size[0]] = resultSet.getLong(1);
+            edges[1][size[0]] = resultSet.getLong(2);
+            size[0]++;
+        });
+
+        following.reset(Adjacency.Csr.of(edges[0], edges[1], size[0]));
+        followers.reset(Adjacency.Csr.of(edges[1], edges[0], size[0]));
+        log.info("Social graph index rebuilt with {} follows in {} ms", size[0], System.currentTimeMillis() - start);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.socialmediaplatform.model;
 
 import com.example.socialmediaplatform.dto.FollowerResponseDTO;
 import com.example.socialmediaplatform.dto.FollowingResponseDTO;
+import com.example.socialmediaplatform.graph.FollowIndexListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -14,6 +15,7 @@ import lombok.Setter;
 @AllArgsConstructor
 @Table
 @Entity(name = "follows")
+@EntityListeners(FollowIndexListener.class)
 public class Follow {
 
     @Id
@@ -1,6 +1,7 @@
 package com.example.socialmediaplatform.model;
 
 import com.example.socialmediaplatform.dto.PostResponseDTO;
+import com.example.socialmediaplatform.search.PostIndexListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -18,7 +19,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Entity
 @Table(name = "posts")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, PostIndexListener.class})
 public class Post {
 
     @Id
@@ -41,13 +42,22 @@ public class Post {
     @OneToMany(mappedBy = "post")
     private List<Like> likes;
 
+    // Denormalised like count. Only written by LikeCounter's batched increments, never by entity saves,
+    // so a read-modify-write of a post cannot overwrite concurrent likes.
+    @Column(name = "like_count", nullable = false, insertable = false, updatable = false)
+    private long likeCount;
+
+    public Post(Long id, User user, String content, LocalDateTime timestamp, List<Comment> comments, List<Like> likes) {
+        this(id, user, content, timestamp, comments, likes, 0);
+    }
+
     public PostResponseDTO toResponse(){
         return new PostResponseDTO(
                 this.id,
                 this.content,
                 this.timestamp,
                 (comments == null || comments.isEmpty()) ? null : comments.stream().map(Comment::toResponse).toList(),
-                (likes == null || likes.isEmpty()) ? 0 : likes.size(),
+                (int) this.likeCount,
                 this.user.getUsername()
         );
     }
@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Getter
@@ -50,6 +52,19 @@ public class User {
 
     private String role;
 
+    // Set when the account is deleted; its rows are then removed in the background by UserDeletionJob.
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    public User(Long id, String username, String email, String password, String profilePicture, String bio, List<Post> posts,
+                List<Comment> comments, List<Follow> following, List<Follow> followers, List<Like> likes, String role) {
+        this(id, username, email, password, profilePicture, bio, posts, comments, following, followers, likes, role, null);
+    }
+
+    public boolean isDeleted() {
+        return deletedAt != null;
+    }
+
     public UserResponseDTO toResponse(){
         return new UserResponseDTO(
                 this.id,
@@ -1,7 +1,21 @@
 package com.example.socialmediaplatform.repository;
 
 import com.example.socialmediaplatform.model.Comment;
+import com.example.socialmediaplatform.repository.projection.CommentView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+
+    // Comments of a whole page of posts in one statement, without those of deleted users.
+    @Query("SELECT c.post.id AS postId, c.content AS content, c.timestamp AS createdAt FROM Comment c " +
+            "WHERE c.post.id IN :postIds AND c.user.deletedAt IS NULL ORDER BY c.id")
+    List<CommentView> findViewsByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    @Query("SELECT DISTINCT c.post.id FROM Comment c WHERE c.user.id = :userId")
+    List<Long> findPostIdsByUserId(@Param("userId") Long userId);
 }
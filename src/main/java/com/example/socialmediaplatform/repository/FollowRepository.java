@@ -1,7 +1,22 @@
 package com.example.socialmediaplatform.repository;
 
 import com.example.socialmediaplatform.model.Follow;
+import com.example.socialmediaplatform.repository.projection.FollowEdgeView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface FollowRepository extends JpaRepository<Follow, Long> {
+
+    // Keyset pages of a user's followers / followings in follow order, starting after the follow id `afterId`.
+    // Deleted users are left out until UserDeletionJob removes their follows.
+    @Query("SELECT f.id AS followId, u.username AS username, u.email AS email FROM follows f JOIN f.follower u " +
+            "WHERE f.following.id = :userId AND f.id > :afterId AND u.deletedAt IS NULL ORDER BY f.id")
+    Slice<FollowEdgeView> findFollowerViews(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT f.id AS followId, u.username AS username, u.email AS email FROM follows f JOIN f.following u " +
+            "WHERE f.follower.id = :userId AND f.id > :afterId AND u.deletedAt IS NULL ORDER BY f.id")
+    Slice<FollowEdgeView> findFollowingViews(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
 }
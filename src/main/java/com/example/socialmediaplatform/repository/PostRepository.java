@@ -1,12 +1,74 @@
 package com.example.socialmediaplatform.repository;
 
 import com.example.socialmediaplatform.model.Post;
+import com.example.socialmediaplatform.repository.projection.PostView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
+
+    // Projection of a post with its author name (join) and denormalised like count, so listings never touch
+    // the lazy collections. Comments are batch loaded separately with CommentRepository.findViewsByPostIdIn.
+    // Posts of deleted users are hidden from the moment they are marked, before UserDeletionJob removes them;
+    // queries extend the WHERE clause with AND.
+    String POST_VIEW = "SELECT p.id AS id, p.content AS content, p.timestamp AS createdAt, " +
+            "u.username AS username, p.likeCount AS likeCount FROM Post p JOIN p.user u WHERE u.deletedAt IS NULL";
+
     Page<Post> findByContentContaining(String content, Pageable pageable);
     List<Post> findByUserId(Long userId);
+
+    @Query("SELECT p.id FROM Post p WHERE p.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    @Query(value = POST_VIEW, countQuery = "SELECT COUNT(p) FROM Post p WHERE p.user.deletedAt IS NULL")
+    Page<PostView> findAllViews(Pageable pageable);
+
+    @Query(POST_VIEW + " AND p.user.id = :userId ORDER BY p.id")
+    List<PostView> findViewsByUserId(@Param("userId") Long userId);
+
+    @Query(POST_VIEW + " AND p.id IN :ids")
+    List<PostView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = POST_VIEW + " AND p.id IN :ids",
+            countQuery = "SELECT COUNT(p) FROM Post p WHERE p.id IN :ids AND p.user.deletedAt IS NULL")
+    Page<PostView> findViewPageByIdIn(@Param("ids") Collection<Long> ids, Pageable pageable);
+
+    // Newest post ids of the given authors, used to backfill a cold home timeline.
+    @Query("SELECT p.id FROM Post p WHERE p.user.id IN :authorIds AND p.user.deletedAt IS NULL ORDER BY p.id DESC")
+    List<Long> findRecentIdsByUserIdIn(@Param("authorIds") Collection<Long> authorIds, Pageable pageable);
+
+    // Newest post ids of one author older than `beforeId`, the pull side of the hybrid feed.
+    @Query("SELECT p.id FROM Post p WHERE p.user.id = :authorId AND p.id < :beforeId " +
+            "AND p.user.deletedAt IS NULL ORDER BY p.id DESC")
+    List<Long> findRecentIdsByUserIdBefore(@Param("authorId") Long authorId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    // Keyset pages ordered by (timestamp, id) newest first. Slices fetch one extra row instead of running COUNT(*).
+    @Query(POST_VIEW + " ORDER BY p.timestamp DESC, p.id DESC")
+    Slice<PostView> findFirstSlice(Pageable pageable);
+
+    @Query(POST_VIEW + " AND (p.timestamp < :timestamp OR (p.timestamp = :timestamp AND p.id < :id)) " +
+            "ORDER BY p.timestamp DESC, p.id DESC")
+    Slice<PostView> findSliceAfter(@Param("timestamp") LocalDateTime timestamp, @Param("id") Long id, Pageable pageable);
+
+    // Ownership-checked writes in one statement each: no affected row means the post is missing or belongs
+    // to another user. Bulk statements skip the entity listeners, so callers update the search index.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Post p SET p.content = :content WHERE p.id = :id AND p.user.id = :userId")
+    int updateContentByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId, @Param("content") String content);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Post p WHERE p.id = :id AND p.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 }
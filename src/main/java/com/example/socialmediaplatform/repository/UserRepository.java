@@ -1,12 +1,49 @@
 package com.example.socialmediaplatform.repository;
 
 import com.example.socialmediaplatform.model.User;
+import com.example.socialmediaplatform.repository.projection.UserNameView;
+import com.example.socialmediaplatform.repository.projection.UserProfileView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    Page<User> findByUsernameContainingOrEmailContainingOrBioContaining(String usernameKeyword, String emailKeyword, String bioKeyword, Pageable pageable);
+    // Users whose username, email or bio contains the keyword; deleted users are left out.
+    @Query("SELECT u FROM User u WHERE (u.username LIKE %:keyword% OR u.email LIKE %:keyword% OR u.bio LIKE %:keyword%) " +
+            "AND u.deletedAt IS NULL")
+    Page<User> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+
+    Page<User> findByDeletedAtIsNull(Pageable pageable);
+
+    boolean existsByIdAndDeletedAtIsNull(Long id);
     Optional<User> findByUsernameOrEmail(String username, String email);
+
+    // id only, for writes that reference the user without loading it
+    @Query("SELECT u.id FROM User u WHERE (u.username = :usernameOrEmail OR u.email = :usernameOrEmail) AND u.deletedAt IS NULL")
+    Optional<Long> findIdByUsernameOrEmail(@Param("usernameOrEmail") String usernameOrEmail);
+
+    // each count is an index range scan on the matching foreign key
+    @Query(value = "SELECT u.id AS id, u.username AS username, u.email AS email, u.bio AS bio, " +
+            "(SELECT COUNT(*) FROM posts p WHERE p.user_id = u.id) AS postCount, " +
+            "(SELECT COUNT(*) FROM follows f WHERE f.following_id = u.id) AS followerCount, " +
+            "(SELECT COUNT(*) FROM follows f WHERE f.follower_id = u.id) AS followingCount, " +
+            "(SELECT COUNT(*) FROM post_likes l WHERE l.user_id = u.id) AS likeCount " +
+            "FROM users u WHERE u.id = :id AND u.deleted_at IS NULL", nativeQuery = true)
+    Optional<UserProfileView> findProfileById(@Param("id") Long id);
+
+    @Query("SELECT u.id AS id, u.username AS username FROM User u WHERE u.id IN :ids")
+    List<UserNameView> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Soft delete; UserDeletionJob removes the row and everything referencing it afterwards.
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.deletedAt = CURRENT_TIMESTAMP WHERE u.id = :id AND u.deletedAt IS NULL")
+    int markDeleted(@Param("id") Long id);
 }
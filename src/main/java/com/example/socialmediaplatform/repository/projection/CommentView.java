@@ -0,0 +1,9 @@
+package com.example.socialmediaplatform.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface CommentView {
+    Long getPostId();
+    String getContent();
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,8 @@
+package com.example.socialmediaplatform.repository.projection;
+
+// The other end of a follow edge, with the edge id used as the paging cursor.
+public interface FollowEdgeView {
+    Long getFollowId();
+    String getUsername();
+    String getEmail();
+}
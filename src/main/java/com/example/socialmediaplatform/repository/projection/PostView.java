@@ -0,0 +1,12 @@
+package com.example.socialmediaplatform.repository.projection;
+
+import java.time.LocalDateTime;
+
+// Read model of a post row with its author name and like count, selected in a single statement.
+public interface PostView {
+    Long getId();
+    String getContent();
+    LocalDateTime getCreatedAt();
+    String getUsername();
+    long getLikeCount();
+}
@@ -0,0 +1,6 @@
+package com.example.socialmediaplatform.repository.projection;
+
+public interface UserNameView {
+    Long getId();
+    String getUsername();
+}
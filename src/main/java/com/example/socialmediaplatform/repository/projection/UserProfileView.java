@@ -0,0 +1,13 @@
+package com.example.socialmediaplatform.repository.projection;
+
+// Profile columns of a user with its aggregate counts, selected in a single statement.
+public interface UserProfileView {
+    Long getId();
+    String getUsername();
+    String getEmail();
+    String getBio();
+    long getPostCount();
+    long getFollowerCount();
+    long getFollowingCount();
+    long getLikeCount();
+}
@@ -0,0 +1,657 @@
+package com.example.socialmediaplatform.search;
+
+import java.util.*;
+
+// The index proper, without locking or Spring wiring (see PostSearchIndex): term -> PostingList of internal
+// document numbers, plus per-document post id, length, creation time and like count.
+//
+// Every indexed version of a post gets a new, increasing document number so posting lists are append-only;
+// replaced and deleted versions are tombstoned. Once they make up `compactRatio` of the live documents, the
+// live documents are renumbered densely in their existing order, and the posting lists and per-document arrays
+// are rebuilt. Memory therefore follows the live posts, not the number of edits ever made.
+//
+// Newest creation time and most likes are also kept per BOOST_BLOCK consecutive documents, bounding the
+// recency and like boosts of a stretch of documents during ranking.
+final class InvertedIndex {
+
+    static final int BOOST_BLOCK = 128;
+    // newest documents scored before WAND starts, per requested result
+    static final int SEED_DOCS_PER_RESULT = 16;
+
+    // ranked results: post ids best first, their scores, and how many documents were fully scored
+    record TopDocs(long[] ids, double[] scores, int scored) {
+    }
+
+    private final double compactRatio;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docOfPost = new HashMap<>();
+    private long[] postOfDoc = new long[1024];
+    private int[] lengthOfDoc = new int[1024];
+    private long[] createdAtOfDoc = new long[1024]; // epoch seconds
+    private long[] likesOfDoc = new long[1024];
+    private long[] maxCreatedAtOfBlock = new long[1024 / BOOST_BLOCK];
+    private long[] maxLikesOfBlock = new long[1024 / BOOST_BLOCK];
+    private int nextDoc;
+    private final BitSet deleted = new BitSet();
+    private int tombstones; // deleted documents still present in posting lists
+    private long liveLength;
+
+    InvertedIndex(double compactRatio) {
+        this.compactRatio = compactRatio;
+    }
+
+    int size() {
+        return docOfPost.size();
+    }
+
+    int termCount() {
+        return postings.size();
+    }
+
+    // Document numbers in use, live or tombstoned; the per-document arrays are sized by this.
+    int docSlots() {
+        return nextDoc;
+    }
+
+    void add(long postId, String content, long createdAt, long likes) {
+        remove(postId);
+        int doc = nextDoc++;
+        if (doc == postOfDoc.length) {
+            postOfDoc = Arrays.copyOf(postOfDoc, doc * 2);
+            lengthOfDoc = Arrays.copyOf(lengthOfDoc, doc * 2);
+            createdAtOfDoc = Arrays.copyOf(createdAtOfDoc, doc * 2);
+            likesOfDoc = Arrays.copyOf(likesOfDoc, doc * 2);
+            maxCreatedAtOfBlock = Arrays.copyOf(maxCreatedAtOfBlock, doc * 2 / BOOST_BLOCK);
+            maxLikesOfBlock = Arrays.copyOf(maxLikesOfBlock, doc * 2 / BOOST_BLOCK);
+        }
+        List<String> tokens = Tokenizer.tokenize(content);
+        store(doc, postId, tokens.size(), createdAt, likes);
+        liveLength += tokens.size();
+
+        Map<String, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            positions.computeIfAbsent(tokens.get(i), t -> new ArrayList<>()).add(i);
+        }
+        positions.forEach((term, termPositions) -> postings.computeIfAbsent(term, t -> new PostingList())
+                .append(doc, termPositions.stream().mapToInt(Integer::intValue).toArray(), tokens.size()));
+    }
+
+    private void store(int doc, long postId, int length, long createdAt, long likes) {
+        postOfDoc[doc] = postId;
+        lengthOfDoc[doc] = length;
+        createdAtOfDoc[doc] = createdAt;
+        likesOfDoc[doc] = likes;
+        if (doc % BOOST_BLOCK == 0) {
+            maxCreatedAtOfBlock[doc / BOOST_BLOCK] = createdAt;
+            maxLikesOfBlock[doc / BOOST_BLOCK] = likes;
+        } else {
+            maxCreatedAtOfBlock[doc / BOOST_BLOCK] = Math.max(maxCreatedAtOfBlock[doc / BOOST_BLOCK], createdAt);
+            maxLikesOfBlock[doc / BOOST_BLOCK] = Math.max(maxLikesOfBlock[doc / BOOST_BLOCK], likes);
+        }
+        docOfPost.put(postId, doc);
+    }
+
+    void remove(long postId) {
+        Integer doc = docOfPost.remove(postId);
+        if (doc == null) {
+            return;
+        }
+        deleted.set(doc);
+        liveLength -= lengthOfDoc[doc];
+        tombstones++;
+        if (tombstones > 1000 && tombstones > docOfPost.size() * compactRatio) {
+            compact();
+        }
+    }
+
+    void addLikes(long postId, long delta) {
+        Integer doc = docOfPost.get(postId);
+        if (doc != null) {
+            likesOfDoc[doc] += delta;
+            maxLikesOfBlock[doc / BOOST_BLOCK] = Math.max(maxLikesOfBlock[doc / BOOST_BLOCK], likesOfDoc[doc]);
+        }
+    }
+
+    // Renumbers the live documents 0..size()-1 in their current order (so posting lists stay sorted and newer
+    // posts keep higher numbers) into arrays sized for them, and re-encodes the posting lists to match.
+    private void compact() {
+        long[] oldPostOfDoc = postOfDoc;
+        int[] oldLengthOfDoc = lengthOfDoc;
+        long[] oldCreatedAtOfDoc = createdAtOfDoc;
+        long[] oldLikesOfDoc = likesOfDoc;
+        int oldNextDoc = nextDoc;
+
+        int capacity = Math.max(1024, Integer.highestOneBit(Math.max(1, docOfPost.size())) * 2);
+        postOfDoc = new long[capacity];
+        lengthOfDoc = new int[capacity];
+        createdAtOfDoc = new long[capacity];
+        likesOfDoc = new long[capacity];
+        maxCreatedAtOfBlock = new long[capacity / BOOST_BLOCK];
+        maxLikesOfBlock = new long[capacity / BOOST_BLOCK];
+
+        int[] newDoc = new int[oldNextDoc];
+        int next = 0;
+        for (int doc = 0; doc < oldNextDoc; doc++) {
+            if (deleted.get(doc)) {
+                newDoc[doc] = -1;
+            } else {
+                newDoc[doc] = next;
+                store(next++, oldPostOfDoc[doc], oldLengthOfDoc[doc], oldCreatedAtOfDoc[doc], oldLikesOfDoc[doc]);
+            }
+        }
+        nextDoc = next;
+
+        Iterator<Map.Entry<String, PostingList>> it = postings.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, PostingList> entry = it.next();
+            PostingList live = entry.getValue().renumbered(newDoc, lengthOfDoc);
+            if (live.docCount() == 0) {
+                it.remove();
+            } else {
+                entry.setValue(live);
+            }
+        }
+        deleted.clear();
+        tombstones = 0;
+    }
+
+    // ---- boolean matching
+
+    // Ids of the posts matching the query, newest (highest id) first.
+    long[] match(SearchQuery query) {
+        int[] docs = new int[0];
+        for (List<List<String>> clauses : query.alternatives()) {
+            docs = union(docs, matchAll(clauses));
+        }
+        long[] ids = new long[docs.length];
+        for (int i = 0; i < docs.length; i++) {
+            ids[i] = postOfDoc[docs[i]];
+        }
+        Arrays.sort(ids);
+        for (int i = 0, j = ids.length - 1; i < j; i++, j--) {
+            long swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        return ids;
+    }
+
+    // Number of posts matching the query, without mapping the matches to post ids or sorting them. A single
+    // term is counted straight off its posting list.
+    int count(SearchQuery query) {
+        List<List<List<String>>> alternatives = query.alternatives();
+        if (alternatives.size() == 1) {
+            List<List<String>> clauses = alternatives.get(0);
+            if (clauses.size() == 1 && clauses.get(0).size() == 1) {
+                return termCount(clauses.get(0).get(0));
+            }
+            return matchAll(clauses).length;
+        }
+        int[] docs = new int[0];
+        for (List<List<String>> clauses : alternatives) {
+            docs = union(docs, matchAll(clauses));
+        }
+        return docs.length;
+    }
+
+    private int termCount(String term) {
+        PostingList list = postings.get(term);
+        if (list == null) {
+            return 0;
+        }
+        int n = 0;
+        PostingList.Reader reader = list.reader();
+        while (reader.next()) {
+            if (!deleted.get(reader.doc())) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    // Documents matching every clause, in increasing order. Rarest clause first keeps intermediates small.
+    private int[] matchAll(List<List<String>> clauses) {
+        List<List<String>> ordered = new ArrayList<>(clauses);
+        ordered.sort(Comparator.comparingInt(this::rarestTermFrequency));
+        int[] docs = null;
+        for (List<String> clause : ordered) {
+            int[] matched = clause.size() == 1 ? termDocs(clause.get(0)) : phraseDocs(clause);
+            docs = docs == null ? matched : intersect(docs, matched);
+            if (docs.length == 0) {
+                break;
+            }
+        }
+        return docs == null ? new int[0] : docs;
+    }
+
+    private int rarestTermFrequency(List<String> clause) {
+        int min = Integer.MAX_VALUE;
+        for (String term : clause) {
+            PostingList list = postings.get(term);
+            min = Math.min(min, list == null ? 0 : list.docCount());
+        }
+        return min;
+    }
+
+    private int[] termDocs(String term) {
+        PostingList list = postings.get(term);
+        if (list == null) {
+            return new int[0];
+        }
+        int[] docs = new int[list.docCount()];
+        int n = 0;
+        PostingList.Reader reader = list.reader();
+        while (reader.next()) {
+            if (!deleted.get(reader.doc())) {
+                docs[n++] = reader.doc();
+            }
+        }
+        return Arrays.copyOf(docs, n);
+    }
+
+    // Leapfrog over the terms' lists; on a common document check the terms occur at consecutive positions.
+    private int[] phraseDocs(List<String> phrase) {
+        PostingList.Reader[] readers = new PostingList.Reader[phrase.size()];
+        for (int i = 0; i < readers.length; i++) {
+            PostingList list = postings.get(phrase.get(i));
+            if (list == null) {
+                return new int[0];
+            }
+            readers[i] = list.reader();
+            if (!readers[i].next()) {
+                return new int[0];
+            }
+        }
+        int[] docs = new int[16];
+        int n = 0;
+        int target = 0;
+        while (true) {
+            boolean aligned = true;
+            for (PostingList.Reader reader : readers) {
+                if (!reader.advance(target)) {
+                    return Arrays.copyOf(docs, n);
+                }
+                if (reader.doc() > target) {
+                    target = reader.doc();
+                    aligned = false;
+                }
+            }
+            if (!aligned) {
+                continue;
+            }
+            if (!deleted.get(target) && hasPhrase(readers)) {
+                if (n == docs.length) {
+                    docs = Arrays.copyOf(docs, n * 2);
+                }
+                docs[n++] = target;
+            }
+            target++;
+        }
+    }
+
+    private static boolean hasPhrase(PostingList.Reader[] readers) {
+        int[][] positions = new int[readers.length][];
+        for (int i = 0; i < readers.length; i++) {
+            positions[i] = readers[i].positions();
+        }
+        for (int start : positions[0]) {
+            boolean match = true;
+            for (int i = 1; i < positions.length && match; i++) {
+                match = Arrays.binarySearch(positions[i], start + i) >= 0;
+            }
+            if (match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                out[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // ---- ranking
+
+    // One query term during ranking: its list, cursor, BM25 idf and the most it can add to a document's score.
+    private final class TermCursor {
+        final PostingList list;
+        final PostingList.Reader reader;
+        final double idf;
+        final double maxScore;
+
+        TermCursor(PostingList list, Ranking ranking, double avgLength) {
+            this.list = list;
+            this.reader = list.reader();
+            int n = docOfPost.size();
+            int df = Math.min(list.docCount(), n); // tombstoned documents still count until compaction
+            this.idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            this.maxScore = idf * tf(list.maxFrequency(), list.minDocLength(), ranking, avgLength);
+            reader.next();
+        }
+
+        int doc() {
+            return reader.doc();
+        }
+
+        // block bound for the stretch holding `target`, cached until a target past its end
+        private int blockFirst = Integer.MAX_VALUE;
+        private int blockLast = -1;
+        private double blockMaxScore;
+
+        // Upper bound of this term's score over documents target..blockLast(), 0 when no document is left.
+        double blockMaxScore(int target, Ranking ranking, double avgLength) {
+            if (target < blockFirst || target > blockLast) {
+                int block = list.blockOf(target);
+                if (block < 0) {
+                    blockFirst = target;
+                    blockLast = Integer.MAX_VALUE - 1;
+                    blockMaxScore = 0;
+                } else {
+                    blockFirst = target;
+                    blockLast = list.blockLastDoc(block);
+                    blockMaxScore = idf * tf(list.blockMaxFrequency(block), list.blockMinDocLength(block), ranking, avgLength);
+                }
+            }
+            return blockMaxScore;
+        }
+
+        int blockLast() {
+            return blockLast;
+        }
+    }
+
+    // The query's terms as cursors, and its alternatives as clauses of cursors (a null clause can never match).
+    private record Plan(TermCursor[] terms, List<List<TermCursor[]>> alternatives, boolean conjunctive,
+                        boolean anyTermMatches) {
+    }
+
+    private Plan plan(SearchQuery query, Ranking ranking) {
+        double avgLength = averageLength();
+        Map<String, TermCursor> cursors = new LinkedHashMap<>();
+        List<List<TermCursor[]>> alternatives = new ArrayList<>();
+        boolean anyTermMatches = true;
+        for (List<List<String>> clauses : query.alternatives()) {
+            List<TermCursor[]> planned = new ArrayList<>();
+            for (List<String> clause : clauses) {
+                TermCursor[] terms = new TermCursor[clause.size()];
+                for (int i = 0; i < terms.length && terms != null; i++) {
+                    PostingList list = postings.get(clause.get(i));
+                    if (list == null) {
+                        terms = null;
+                    } else {
+                        terms[i] = cursors.computeIfAbsent(clause.get(i), t -> new TermCursor(list, ranking, avgLength));
+                    }
+                }
+                planned.add(terms);
+            }
+            alternatives.add(planned);
+            anyTermMatches &= clauses.size() == 1 && clauses.get(0).size() == 1;
+        }
+        return new Plan(cursors.values().toArray(new TermCursor[0]), alternatives,
+                alternatives.size() == 1, anyTermMatches);
+    }
+
+    private static double tf(int frequency, int docLength, Ranking ranking, double avgLength) {
+        double norm = ranking.k1() * (1 - ranking.b() + ranking.b() * docLength / avgLength);
+        return frequency * (ranking.k1() + 1) / (frequency + norm);
+    }
+
+    // Top `k` matches of the query by BM25 over its terms plus the ranking's boosts, using block-max WAND.
+    // Cursors are kept sorted by document; the pivot is the first document at which the terms' list-wide upper
+    // bounds could beat the current k-th best score (for a single alternative every term is required, so it
+    // is the furthest cursor). Everything before the pivot is skipped. Before scoring the pivot, the tighter
+    // bounds of the blocks around it are checked, and when those cannot beat the threshold either, the whole
+    // stretch up to the nearest block end is skipped.
+    //
+    // Documents are numbered oldest first, so with a recency boost the winners tend to be at the end of the
+    // lists. The newest few documents are therefore scored up front to start WAND with a useful threshold.
+    TopDocs rank(SearchQuery query, int k, Ranking ranking, long now) {
+        if (k <= 0) {
+            return new TopDocs(new long[0], new double[0], 0);
+        }
+        TopK top = new TopK(k);
+        int seedFrom = Math.max(0, nextDoc - Math.max(BOOST_BLOCK, SEED_DOCS_PER_RESULT * k));
+        int scored = scoreAll(plan(query, ranking), seedFrom, top, ranking, now);
+
+        Plan plan = plan(query, ranking);
+        TermCursor[] cursors = plan.terms().clone();
+        double avgLength = averageLength();
+        double maxBoost = ranking.maxBoost();
+        double maxTotal = maxBoost;
+        for (TermCursor cursor : cursors) {
+            maxTotal += cursor.maxScore;
+        }
+        int boostBlock = -1;
+        double boostBound = 0;
+
+        while (cursors.length > 0) {
+            sortByDoc(cursors);
+            double threshold = top.threshold();
+            if (maxTotal <= threshold) {
+                break;
+            }
+
+            int pivot;
+            if (plan.conjunctive()) {
+                pivot = cursors.length - 1;
+            } else {
+                double bound = maxBoost;
+                pivot = -1;
+                for (int i = 0; i < cursors.length && cursors[i].doc() < seedFrom; i++) {
+                    bound += cursors[i].maxScore;
+                    if (bound > threshold) {
+                        pivot = i;
+                        break;
+                    }
+                }
+                if (pivot < 0) {
+                    break;
+                }
+            }
+            int pivotDoc = cursors[pivot].doc();
+            if (pivotDoc >= seedFrom) {
+                break;
+            }
+            while (pivot + 1 < cursors.length && cursors[pivot + 1].doc() == pivotDoc) {
+                pivot++;
+            }
+
+            // block-max check over the terms that can occur in [pivotDoc, next)
+            int next = pivot + 1 < cursors.length ? cursors[pivot + 1].doc() : Integer.MAX_VALUE;
+            int block = pivotDoc / BOOST_BLOCK;
+            if (block != boostBlock) {
+                boostBlock = block;
+                boostBound = ranking.boost(now - maxCreatedAtOfBlock[block], maxLikesOfBlock[block]);
+            }
+            double blockBound = boostBound;
+            next = Math.min(next, (block + 1) * BOOST_BLOCK);
+            for (int i = 0; i <= pivot; i++) {
+                blockBound += cursors[i].blockMaxScore(pivotDoc, ranking, avgLength);
+                next = Math.min(next, cursors[i].blockLast() + 1);
+            }
+            if (blockBound <= threshold) {
+                for (int i = 0; i <= pivot; i++) {
+                    cursors[i].reader.advance(next);
+                }
+                continue;
+            }
+
+            if (cursors[0].doc() == pivotDoc) {
+                if (!deleted.get(pivotDoc) && (plan.anyTermMatches() || matches(plan, pivotDoc))) {
+                    scored++;
+                    top.offer(pivotDoc, score(plan, pivotDoc, ranking, avgLength, now));
+                }
+                for (int i = 0; i <= pivot; i++) {
+                    cursors[i].reader.next();
+                }
+            } else {
+                for (int i = 0; i < pivot && cursors[i].doc() < pivotDoc; i++) {
+                    cursors[i].reader.advance(pivotDoc);
+                }
+            }
+        }
+        return top.toTopDocs(scored);
+    }
+
+    // Same result as rank(), scoring every matching document. Kept as the reference for tests and benchmarks.
+    TopDocs rankExhaustive(SearchQuery query, int k, Ranking ranking, long now) {
+        if (k <= 0) {
+            return new TopDocs(new long[0], new double[0], 0);
+        }
+        TopK top = new TopK(k);
+        int scored = scoreAll(plan(query, ranking), 0, top, ranking, now);
+        return top.toTopDocs(scored);
+    }
+
+    // Offers every matching document from `from` on to `top`; returns how many were scored.
+    private int scoreAll(Plan plan, int from, TopK top, Ranking ranking, long now) {
+        double avgLength = averageLength();
+        for (TermCursor cursor : plan.terms()) {
+            cursor.reader.advance(from);
+        }
+        int scored = 0;
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (TermCursor cursor : plan.terms()) {
+                doc = Math.min(doc, cursor.doc());
+            }
+            if (doc == Integer.MAX_VALUE) {
+                return scored;
+            }
+            if (!deleted.get(doc) && matches(plan, doc)) {
+                scored++;
+                top.offer(doc, score(plan, doc, ranking, avgLength, now));
+            }
+            for (TermCursor cursor : plan.terms()) {
+                if (cursor.doc() == doc) {
+                    cursor.reader.next();
+                }
+            }
+        }
+    }
+
+    // Insertion sort: queries have a handful of terms and the order barely changes between steps.
+    private static void sortByDoc(TermCursor[] cursors) {
+        for (int i = 1; i < cursors.length; i++) {
+            TermCursor cursor = cursors[i];
+            int j = i - 1;
+            while (j >= 0 && cursors[j].doc() > cursor.doc()) {
+                cursors[j + 1] = cursors[j];
+                j--;
+            }
+            cursors[j + 1] = cursor;
+        }
+    }
+
+    private double averageLength() {
+        return docOfPost.isEmpty() ? 1 : Math.max(1.0, (double) liveLength / docOfPost.size());
+    }
+
+    // Whether the document satisfies the boolean query. Cursors on the document are positioned on it.
+    private static boolean matches(Plan plan, int doc) {
+        for (List<TermCursor[]> clauses : plan.alternatives()) {
+            boolean all = true;
+            for (TermCursor[] clause : clauses) {
+                if (!matchesClause(clause, doc)) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesClause(TermCursor[] clause, int doc) {
+        if (clause == null) {
+            return false;
+        }
+        PostingList.Reader[] readers = new PostingList.Reader[clause.length];
+        for (int i = 0; i < clause.length; i++) {
+            if (clause[i].doc() != doc) {
+                return false;
+            }
+            readers[i] = clause[i].reader;
+        }
+        return readers.length == 1 || hasPhrase(readers);
+    }
+
+    // Terms are summed in query order so rank() and rankExhaustive() give bit-identical scores.
+    private double score(Plan plan, int doc, Ranking ranking, double avgLength, long now) {
+        double score = ranking.boost(now - createdAtOfDoc[doc], likesOfDoc[doc]);
+        for (TermCursor cursor : plan.terms()) {
+            if (cursor.doc() == doc) {
+                score += cursor.idf * tf(cursor.reader.frequency(), lengthOfDoc[doc], ranking, avgLength);
+            }
+        }
+        return score;
+    }
+
+    // Bounded min-heap of (score, doc). A document only displaces the minimum with a strictly higher score.
+    private final class TopK {
+        private final int k;
+        private final PriorityQueue<double[]> heap;
+
+        TopK(int k) {
+            this.k = k;
+            this.heap = new PriorityQueue<>(k + 1, Comparator.<double[]>comparingDouble(e -> e[0]).thenComparingDouble(e -> e[1]));
+        }
+
+        // Score a document must beat to enter the top k.
+        double threshold() {
+            return heap.size() < k ? Double.NEGATIVE_INFINITY : heap.peek()[0];
+        }
+
+        void offer(int doc, double score) {
+            if (heap.size() < k) {
+                heap.add(new double[]{score, doc});
+            } else if (score > heap.peek()[0]) {
+                heap.poll();
+                heap.add(new double[]{score, doc});
+            }
+        }
+
+        TopDocs toTopDocs(int scored) {
+            long[] ids = new long[heap.size()];
+            double[] scores = new double[heap.size()];
+            for (int i = ids.length - 1; i >= 0; i--) {
+                double[] entry = heap.poll();
+                scores[i] = entry[0];
+                ids[i] = postOfDoc[(int) entry[1]];
+            }
+            return new TopDocs(ids, scores, scored);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.socialmediaplatform.search;
+
+import com.example.socialmediaplatform.model.Post;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+// JPA listener on Post that applies created, edited and deleted posts to the PostSearchIndex once their
+// transaction commits.
+@Component
+public class PostIndexListener {
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Post post) {
+        long postId = post.getId();
+        String content = post.getContent();
+        LocalDateTime createdAt = post.getTimestamp();
+        long likes = post.getLikeCount();
+        afterCommit(() -> postSearchIndex.index(postId, content, createdAt, likes));
+    }
+
+    @PostRemove
+    public void onRemove(Post post) {
+        long postId = post.getId();
+        afterCommit(() -> postSearchIndex.remove(postId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
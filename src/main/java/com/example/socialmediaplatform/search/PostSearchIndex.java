@@ -0,0 +1,172 @@
+package com.example.socialmediaplatform.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// In-memory inverted index over post content (see InvertedIndex), rebuilt from the posts table at startup and
+// kept current by PostIndexListener and the like pipeline. Answers boolean matches newest first and relevance
+// ranked top-k queries scored with BM25 plus recency and like boosts. Many concurrent searches, one writer
+// at a time.
+@Slf4j
+@Component
+public class PostSearchIndex {
+
+    // Connector/J streams a result set row by row only with this fetch size (unless useCursorFetch is set);
+    // any other value buffers the whole table in memory.
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.search.compact-ratio:0.25}")
+    private double compactRatio;
+
+
+    @Value("${app.search.ranking.k1:1.2}")
+    private double k1;
+
+    @Value("${app.search.ranking.b:0.75}")
+    private double b;
+
+    @Value("${app.search.ranking.recency-weight:1.0}")
+    private double recencyWeight;
+
+    @Value("${app.search.ranking.recency-half-life-hours:72}")
+    private double recencyHalfLifeHours;
+
+    @Value("${app.search.ranking.likes-weight:1.0}")
+    private double likesWeight;
+
+    @Value("${app.search.ranking.likes-saturation:50}")
+    private double likesSaturation;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private InvertedIndex index;
+    private Ranking ranking;
+
+    private Timer queryTimer;
+    private Timer rankTimer;
+
+    @PostConstruct
+    void init() {
+        index = new InvertedIndex(compactRatio);
+        ranking = new Ranking(k1, b, recencyWeight, recencyHalfLifeHours, likesWeight, likesSaturation);
+        Gauge.builder("search.index.posts", this, PostSearchIndex::size).register(meterRegistry);
+        Gauge.builder("search.index.terms", this, search -> search.read(search.index::termCount)).register(meterRegistry);
+        queryTimer = Timer.builder("search.query").tag("order", "newest").register(meterRegistry);
+        rankTimer = Timer.builder("search.query").tag("order", "relevance").register(meterRegistry);
+    }
+
+    public int size() {
+        return read(index::size);
+    }
+
+    // Indexes a new post or replaces the indexed content of an existing one.
+    public void index(long postId, String content, LocalDateTime createdAt, long likes) {
+        write(() -> index.add(postId, content, epochSeconds(createdAt), likes));
+    }
+
+    public void remove(long postId) {
+        write(() -> index.remove(postId));
+    }
+
+    // Keeps the like boost current; called with the deltas the like pipeline applies.
+    public void addLikes(long postId, long delta) {
+        write(() -> index.addLikes(postId, delta));
+    }
+
+    // Ids of the posts matching the query, newest (highest id) first.
+    public long[] search(String query) {
+        SearchQuery parsed = SearchQuery.parse(query);
+        if (parsed.isEmpty()) {
+            return new long[0];
+        }
+        return queryTimer.record(() -> read(() -> index.match(parsed)));
+    }
+
+    // Number of posts matching the query, for page totals of ranked searches.
+    public int count(String query) {
+        SearchQuery parsed = SearchQuery.parse(query);
+        if (parsed.isEmpty()) {
+            return 0;
+        }
+        return read(() -> index.count(parsed));
+    }
+
+    // Ids of the `limit` most relevant posts matching the query, best first.
+    public long[] searchRanked(String query, int limit) {
+        SearchQuery parsed = SearchQuery.parse(query);
+        if (parsed.isEmpty() || limit <= 0) {
+            return new long[0];
+        }
+        long now = epochSeconds(LocalDateTime.now());
+        return rankTimer.record(() -> read(() -> index.rank(parsed, limit, ranking, now).ids()));
+    }
+
+    // Posts committed while the table is read wait for the write lock and are applied on top.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        write(() -> {
+            long start = System.currentTimeMillis();
+            index = new InvertedIndex(compactRatio);
+            jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(
+                        "SELECT p.id, p.content, p.timestamp, p.like_count FROM posts p " +
+                        "JOIN users u ON u.id = p.user_id WHERE u.deleted_at IS NULL ORDER BY p.id",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(STREAMING_FETCH_SIZE);
+                return statement;
+            }, resultSet -> {
+                Timestamp createdAt = resultSet.getTimestamp(3);
+                index.add(resultSet.getLong(1), resultSet.getString(2),
+                        epochSeconds(createdAt == null ? null : createdAt.toLocalDateTime()), resultSet.getLong(4));
+            });
+            log.info("Post search index rebuilt with {} posts and {} terms in {} ms",
+                    index.size(), index.termCount(), System.currentTimeMillis() - start);
+        });
+    }
+
+    // Timestamps are written in the JVM's local time; only differences matter, so any fixed offset works.
+    private static long epochSeconds(LocalDateTime time) {
+        return time == null ? 0 : time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
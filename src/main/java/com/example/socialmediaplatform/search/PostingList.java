@@ -0,0 +1,215 @@
+package com.example.socialmediaplatform.search;
+
+import java.util.Arrays;
+
+// Documents containing one term, in increasing document order, stored in a single byte[] as varints:
+// for each document the gap from the previous document, the number of positions, then the gaps between
+// the term's positions in the document. Documents can only be appended.
+//
+// Every SKIP_INTERVAL documents a skip entry (last document before the block, byte offset of the block) is
+// recorded so readers can jump close to a target document instead of decoding everything before it. The
+// highest term frequency and the shortest document, for the whole list and for each block, bound the BM25
+// score a document can get from this term; they stay valid (if looser) when documents are deleted.
+final class PostingList {
+
+    static final int SKIP_INTERVAL = 64;
+
+    private byte[] data = new byte[16];
+    private int length;
+    private int docCount;
+    private int lastDoc = -1;
+
+    private int[] skipDocs = new int[0];
+    private int[] skipOffsets = new int[0];
+
+    private int maxFrequency;
+    private int minDocLength = Integer.MAX_VALUE;
+    private int[] blockMaxFrequency = new int[1];
+    private int[] blockMinDocLength = {Integer.MAX_VALUE};
+
+    void append(int doc, int[] positions, int docLength) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Documents must be appended in increasing order");
+        }
+        if (docCount > 0 && docCount % SKIP_INTERVAL == 0) {
+            int skips = skipDocs.length;
+            skipDocs = Arrays.copyOf(skipDocs, skips + 1);
+            skipOffsets = Arrays.copyOf(skipOffsets, skips + 1);
+            skipDocs[skips] = lastDoc;
+            skipOffsets[skips] = length;
+            blockMaxFrequency = Arrays.copyOf(blockMaxFrequency, skips + 2);
+            blockMinDocLength = Arrays.copyOf(blockMinDocLength, skips + 2);
+            blockMinDocLength[skips + 1] = Integer.MAX_VALUE;
+        }
+        ensureCapacity(5 * (positions.length + 2));
+        writeVarint(doc - lastDoc);
+        writeVarint(positions.length);
+        int previous = 0;
+        for (int position : positions) {
+            writeVarint(position - previous);
+            previous = position;
+        }
+        lastDoc = doc;
+        docCount++;
+        maxFrequency = Math.max(maxFrequency, positions.length);
+        minDocLength = Math.min(minDocLength, docLength);
+        int block = skipDocs.length;
+        blockMaxFrequency[block] = Math.max(blockMaxFrequency[block], positions.length);
+        blockMinDocLength[block] = Math.min(blockMinDocLength[block], docLength);
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    int sizeInBytes() {
+        return length;
+    }
+
+    int maxFrequency() {
+        return maxFrequency;
+    }
+
+    int minDocLength() {
+        return minDocLength;
+    }
+
+    // Block holding the first document >= target, or -1 when there is none.
+    int blockOf(int target) {
+        if (docCount == 0 || target > lastDoc) {
+            return -1;
+        }
+        int low = 0, high = skipDocs.length; // count skip entries below the target
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (skipDocs[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    int blockLastDoc(int block) {
+        return block < skipDocs.length ? skipDocs[block] : lastDoc;
+    }
+
+    int blockMaxFrequency(int block) {
+        return blockMaxFrequency[block];
+    }
+
+    int blockMinDocLength(int block) {
+        return blockMinDocLength[block];
+    }
+
+    Reader reader() {
+        return new Reader();
+    }
+
+    // Re-encodes the list under new document numbers: newDoc[doc] is the new number of a document, -1 for a
+    // deleted one. The mapping must keep the order of the documents it keeps.
+    PostingList renumbered(int[] newDoc, int[] newDocLengths) {
+        PostingList copy = new PostingList();
+        Reader reader = reader();
+        while (reader.next()) {
+            int doc = newDoc[reader.doc()];
+            if (doc >= 0) {
+                copy.append(doc, reader.positions(), newDocLengths[doc]);
+            }
+        }
+        return copy;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+        }
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    // Forward-only cursor over the list. Positions are decoded only when asked for.
+    final class Reader {
+        private int offset;
+        private int doc = -1;
+        private int positionsOffset;
+        private int positionCount;
+        private int skip; // next skip entry that may be ahead of the cursor
+
+        boolean next() {
+            if (offset >= length) {
+                doc = Integer.MAX_VALUE;
+                return false;
+            }
+            doc += readVarint();
+            positionCount = readVarint();
+            positionsOffset = offset;
+            for (int i = 0; i < positionCount; i++) {
+                readVarint();
+            }
+            return true;
+        }
+
+        // Moves to the first document >= target. Returns false when the list is exhausted.
+        boolean advance(int target) {
+            if (doc >= target) {
+                return doc != Integer.MAX_VALUE;
+            }
+            // jump to the last block that starts before the target
+            int jump = -1;
+            while (skip < skipDocs.length && skipDocs[skip] < target) {
+                jump = skip++;
+            }
+            if (jump >= 0 && skipOffsets[jump] > offset) {
+                doc = skipDocs[jump];
+                offset = skipOffsets[jump];
+            }
+            while (doc < target) {
+                if (!next()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int doc() {
+            return doc;
+        }
+
+        int frequency() {
+            return positionCount;
+        }
+
+        int[] positions() {
+            int saved = offset;
+            offset = positionsOffset;
+            int[] positions = new int[positionCount];
+            int position = 0;
+            for (int i = 0; i < positionCount; i++) {
+                position += readVarint();
+                positions[i] = position;
+            }
+            offset = saved;
+            return positions;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
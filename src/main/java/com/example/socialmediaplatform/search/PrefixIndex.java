@@ -0,0 +1,225 @@
+package com.example.socialmediaplatform.search;
+
+import java.util.*;
+import java.util.function.LongPredicate;
+
+// Immutable sorted-array prefix index: lower-cased keys (usernames, email local parts) with the user they
+// belong to and that user's follower count when the index was built. The entries starting with a prefix
+// form one contiguous range found by binary search, and a segment tree holding the most followed entry of
+// every node yields the range's entries most followed first without visiting the rest: the range is split
+// into O(log n) nodes and a heap repeatedly expands the node with the best remaining entry.
+//
+// The sorted keys double as an implicit trie for fuzzy lookup (see near()).
+final class PrefixIndex {
+
+    // an entry within edit distance of a fuzzy query
+    record Near(int entry, int distance) {
+    }
+
+    private static final int HEAD_CHARS = 8;
+
+    static final PrefixIndex EMPTY = build(new String[0], new long[0], new String[0], new int[0], 0);
+
+    private final String[] keys;
+    private final long[] ids;
+    private final String[] usernames;
+    private final int[] followers;
+    private final int leaves; // power of two >= keys.length
+    private final int[] best; // segment tree node -> entry with the most followers below it, -1 for none
+    // key lengths and first HEAD_CHARS characters, packed four to a long, so trie walks rarely touch the strings
+    private final int[] lengths;
+    private final long[][] head;
+
+    private PrefixIndex(String[] keys, long[] ids, String[] usernames, int[] followers) {
+        this.keys = keys;
+        this.ids = ids;
+        this.usernames = usernames;
+        this.followers = followers;
+        this.lengths = new int[keys.length];
+        this.head = new long[HEAD_CHARS / 4][keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            lengths[i] = keys[i].length();
+            for (int depth = 0; depth < HEAD_CHARS && depth < keys[i].length(); depth++) {
+                head[depth / 4][i] |= (long) keys[i].charAt(depth) << (16 * (3 - depth % 4));
+            }
+        }
+        this.leaves = Integer.highestOneBit(Math.max(1, keys.length - 1)) << 1;
+        this.best = new int[2 * leaves];
+        Arrays.fill(best, -1);
+        for (int i = 0; i < keys.length; i++) {
+            best[leaves + i] = i;
+        }
+        for (int node = leaves - 1; node >= 1; node--) {
+            best[node] = better(best[2 * node], best[2 * node + 1]);
+        }
+    }
+
+    // The first `size` entries of the arrays, in any order. Keys must already be lower case.
+    static PrefixIndex build(String[] keys, long[] ids, String[] usernames, int[] followers, int size) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer, String>comparing(i -> keys[i]).thenComparingLong(i -> ids[i]));
+        String[] sortedKeys = new String[size];
+        long[] sortedIds = new long[size];
+        String[] sortedUsernames = new String[size];
+        int[] sortedFollowers = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedIds[i] = ids[order[i]];
+            sortedUsernames[i] = usernames[order[i]];
+            sortedFollowers[i] = followers[order[i]];
+        }
+        return new PrefixIndex(sortedKeys, sortedIds, sortedUsernames, sortedFollowers);
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    String key(int entry) {
+        return keys[entry];
+    }
+
+    long id(int entry) {
+        return ids[entry];
+    }
+
+    String username(int entry) {
+        return usernames[entry];
+    }
+
+    // Whether the entry's key is its user's username rather than an email local part.
+    boolean isUsername(int entry) {
+        return keys[entry].equals(usernames[entry].toLowerCase(Locale.ROOT));
+    }
+
+    // Up to `limit` entries whose key starts with the (lower-case) prefix and whose user is accepted, most
+    // followed first, at most one per user.
+    int[] top(String prefix, int limit, LongPredicate accept) {
+        int from = lowerBound(prefix, false);
+        int to = lowerBound(prefix, true);
+        if (from >= to || limit <= 0) {
+            return new int[0];
+        }
+        PriorityQueue<Integer> nodes = new PriorityQueue<>((a, b) -> compare(best[a], best[b]));
+        for (int l = from + leaves, r = to + leaves; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                nodes.add(l++);
+            }
+            if ((r & 1) == 1) {
+                nodes.add(--r);
+            }
+        }
+        int[] found = new int[Math.min(limit, to - from)];
+        int n = 0;
+        Set<Long> seen = new HashSet<>();
+        while (n < found.length && !nodes.isEmpty()) {
+            int node = nodes.poll();
+            if (node >= leaves) {
+                int entry = node - leaves;
+                if (accept.test(ids[entry]) && seen.add(ids[entry])) {
+                    found[n++] = entry;
+                }
+                continue;
+            }
+            for (int child = 2 * node; child <= 2 * node + 1; child++) {
+                if (best[child] >= 0) {
+                    nodes.add(child);
+                }
+            }
+        }
+        return Arrays.copyOf(found, n);
+    }
+
+    // Entries whose key is within `maxDistance` Levenshtein edits of the (lower-case) query. Walks the sorted
+    // keys as a trie: entries sharing a prefix are a contiguous range and each child is the sub-range with the
+    // same next character, found by binary search. One dynamic programming row per trie level gives the
+    // distance between the query and every prefix of it, and a subtree is skipped as soon as no cell of its
+    // row is within `maxDistance`, so only keys close to the query are visited.
+    List<Near> near(String query, int maxDistance) {
+        int[] row = new int[query.length() + 1];
+        for (int j = 0; j < row.length; j++) {
+            row[j] = j;
+        }
+        List<Near> found = new ArrayList<>();
+        walk(query, maxDistance, 0, keys.length, 0, row, found);
+        return found;
+    }
+
+    private void walk(String query, int maxDistance, int from, int to, int depth, int[] row, List<Near> found) {
+        // keys ending at this depth sort before their extensions
+        while (from < to && lengths[from] == depth) {
+            if (row[query.length()] <= maxDistance) {
+                found.add(new Near(from, row[query.length()]));
+            }
+            from++;
+        }
+        while (from < to) {
+            char c = charAt(from, depth);
+            int end = childEnd(from, to, depth, c);
+            int[] next = new int[row.length];
+            next[0] = row[0] + 1;
+            int min = next[0];
+            for (int j = 1; j < row.length; j++) {
+                int substitute = row[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+                next[j] = Math.min(substitute, Math.min(row[j], next[j - 1]) + 1);
+                min = Math.min(min, next[j]);
+            }
+            if (min <= maxDistance) {
+                walk(query, maxDistance, from, end, depth + 1, next, found);
+            }
+            from = end;
+        }
+    }
+
+    // End of the run of entries in [from, to) with character c at `depth`; all of them are longer than depth.
+    private int childEnd(int from, int to, int depth, char c) {
+        int low = from, high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (charAt(mid, depth) <= c) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private char charAt(int entry, int depth) {
+        return depth < HEAD_CHARS ? (char) (head[depth / 4][entry] >>> (16 * (3 - depth % 4))) : keys[entry].charAt(depth);
+    }
+
+    // First entry whose key is >= the prefix, or with `past` set, the first one after every key starting with it.
+    private int lowerBound(String prefix, boolean past) {
+        int low = 0, high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            String key = keys[mid];
+            int cmp = key.regionMatches(0, prefix, 0, prefix.length()) ? (past ? -1 : 0) : key.compareTo(prefix);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Entries ranked by more followers, then key order.
+    private int compare(int a, int b) {
+        if (followers[a] != followers[b]) {
+            return Integer.compare(followers[b], followers[a]);
+        }
+        return Integer.compare(a, b);
+    }
+
+    private int better(int a, int b) {
+        if (a < 0 || b < 0) {
+            return Math.max(a, b);
+        }
+        return compare(a, b) <= 0 ? a : b;
+    }
+}
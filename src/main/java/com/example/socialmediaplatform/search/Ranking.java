@@ -0,0 +1,25 @@
+package com.example.socialmediaplatform.search;
+
+// Relevance parameters: BM25 (k1, b) plus two bounded boosts, each at most its weight, so a document's score
+// never exceeds its BM25 score by more than recencyWeight + likesWeight.
+//
+//   recency = recencyWeight * 0.5 ^ (age / recencyHalfLifeHours)
+//   likes   = likesWeight * likes / (likes + likesSaturation)
+public record Ranking(double k1, double b,
+                      double recencyWeight, double recencyHalfLifeHours,
+                      double likesWeight, double likesSaturation) {
+
+    public static final Ranking BM25_ONLY = new Ranking(1.2, 0.75, 0, 1, 0, 1);
+
+    double maxBoost() {
+        return recencyWeight + likesWeight;
+    }
+
+    double boost(long ageSeconds, long likes) {
+        double recency = recencyWeight == 0 ? 0
+                : recencyWeight * Math.pow(0.5, Math.max(0, ageSeconds) / 3600.0 / recencyHalfLifeHours);
+        double popularity = likesWeight == 0 || likes <= 0 ? 0
+                : likesWeight * likes / (likes + likesSaturation);
+        return recency + popularity;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.socialmediaplatform.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Parsed search expression: alternatives separated by an upper-case OR, each a conjunction of terms and
+// "quoted phrases". A word that tokenizes into several tokens (e.g. e-mail) is matched as a phrase.
+//
+//   climbing chess          posts with both terms
+//   climbing OR chess       posts with either
+//   "rock climbing" chess   posts with the phrase and the term
+final class SearchQuery {
+
+    // alternatives -> clauses -> tokens (one token is a term, more are a phrase)
+    private final List<List<List<String>>> alternatives;
+
+    private SearchQuery(List<List<List<String>>> alternatives) {
+        this.alternatives = alternatives;
+    }
+
+    List<List<List<String>>> alternatives() {
+        return alternatives;
+    }
+
+    boolean isEmpty() {
+        return alternatives.isEmpty();
+    }
+
+    static SearchQuery parse(String query) {
+        List<List<List<String>>> alternatives = new ArrayList<>();
+        List<List<String>> clauses = new ArrayList<>();
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            int end;
+            String text;
+            if (c == '"') {
+                int close = query.indexOf('"', i + 1);
+                end = close < 0 ? query.length() : close + 1;
+                text = query.substring(i + 1, close < 0 ? query.length() : close);
+            } else {
+                end = i;
+                while (end < query.length() && !Character.isWhitespace(query.charAt(end)) && query.charAt(end) != '"') {
+                    end++;
+                }
+                text = query.substring(i, end);
+                if (text.equals("OR")) {
+                    addAlternative(alternatives, clauses);
+                    clauses = new ArrayList<>();
+                    i = end;
+                    continue;
+                }
+            }
+            List<String> tokens = Tokenizer.tokenize(text);
+            if (!tokens.isEmpty()) {
+                clauses.add(tokens);
+            }
+            i = end;
+        }
+        addAlternative(alternatives, clauses);
+        return new SearchQuery(alternatives);
+    }
+
+    private static void addAlternative(List<List<List<String>>> alternatives, List<List<String>> clauses) {
+        if (!clauses.isEmpty()) {
+            alternatives.add(clauses);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.socialmediaplatform.search;
+
+import com.example.socialmediaplatform.graph.SocialGraphIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Typeahead over usernames and email local parts, plus typo-tolerant lookup over usernames. A PrefixIndex snapshot answers most of each lookup;
+// users created, renamed or deleted since the snapshot live in a small overlay (`pending` holds their current
+// keys, `stale` hides their snapshot entries). Every `refresh-ms` the snapshot is rebuilt off the lock from
+// itself plus the overlay, which also refreshes the follower counts it ranks by; users changed during the
+// rebuild stay in the overlay. Candidates are over-fetched from the snapshot and re-ranked by live follower
+// counts from the SocialGraphIndex.
+@Slf4j
+@Component
+public class UserTypeaheadIndex {
+
+    // Connector/J streams a result set row by row only with this fetch size (unless useCursorFetch is set);
+    // any other value buffers the whole table in memory.
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    // snapshot candidates fetched per requested result, to absorb follower count drift
+    private static final int OVERFETCH = 4;
+
+    public record Match(long id, String username, int followers) {
+    }
+
+    public record FuzzyMatch(long id, String username, int followers, int distance) {
+    }
+
+    private record Entry(String username, String[] keys) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private PrefixIndex snapshot = PrefixIndex.EMPTY;
+    private final Map<Long, Entry> pending = new HashMap<>();
+    private final Set<Long> stale = new HashSet<>();
+    private Set<Long> changedDuringRefresh; // non-null while a refresh is building the next snapshot
+
+    private Timer lookupTimer;
+    private Timer fuzzyTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("typeahead.snapshot.keys", this, index -> index.read(() -> index.snapshot.size())).register(meterRegistry);
+        Gauge.builder("typeahead.pending.users", this, index -> index.read(index.pending::size)).register(meterRegistry);
+        lookupTimer = Timer.builder("typeahead.lookup").tag("mode", "prefix").register(meterRegistry);
+        fuzzyTimer = Timer.builder("typeahead.lookup").tag("mode", "fuzzy").register(meterRegistry);
+    }
+
+    // Adds a user or replaces the keys of an existing one.
+    public void put(long userId, String username, String email) {
+        Entry entry = new Entry(username, keysOf(username, email));
+        write(() -> {
+            pending.put(userId, entry);
+            changed(userId);
+        });
+    }
+
+    public void remove(long userId) {
+        write(() -> {
+            pending.remove(userId);
+            changed(userId);
+        });
+    }
+
+    // Users with a username or email starting with the query (case-insensitive), most followed first.
+    public List<Match> lookup(String query, int limit) {
+        String prefix = query == null ? "" : query.strip().toLowerCase(Locale.ROOT);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return lookupTimer.record(() -> {
+            Map<Long, String> candidates = read(() -> {
+                Map<Long, String> found = new LinkedHashMap<>();
+                for (int entry : snapshot.top(prefix, limit * OVERFETCH, id -> !stale.contains(id))) {
+                    found.put(snapshot.id(entry), snapshot.username(entry));
+                }
+                pending.forEach((id, entry) -> {
+                    for (String key : entry.keys()) {
+                        if (key.startsWith(prefix)) {
+                            found.put(id, entry.username());
+                        }
+                    }
+                });
+                return found;
+            });
+            List<Match> matches = new ArrayList<>(candidates.size());
+            candidates.forEach((id, username) -> matches.add(new Match(id, username, socialGraphIndex.followerCount(id))));
+            matches.sort(Comparator.comparingInt(Match::followers).reversed().thenComparing(Match::username));
+            return List.copyOf(matches.subList(0, Math.min(limit, matches.size())));
+        });
+    }
+
+    // Users whose username is within `maxDistance` edits of the query (case-insensitive), closest first, then
+    // most followed.
+    public List<FuzzyMatch> fuzzy(String query, int maxDistance, int limit) {
+        String name = query == null ? "" : query.strip().toLowerCase(Locale.ROOT);
+        if (name.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return fuzzyTimer.record(() -> {
+            Map<Long, FuzzyMatch> candidates = read(() -> {
+                Map<Long, FuzzyMatch> found = new HashMap<>();
+                for (PrefixIndex.Near near : snapshot.near(name, maxDistance)) {
+                    long id = snapshot.id(near.entry());
+                    if (!stale.contains(id) && snapshot.isUsername(near.entry())) {
+                        found.put(id, new FuzzyMatch(id, snapshot.username(near.entry()), 0, near.distance()));
+                    }
+                }
+                pending.forEach((id, entry) -> {
+                    int distance = distance(name, entry.keys()[0], maxDistance);
+                    if (distance <= maxDistance) {
+                        found.put(id, new FuzzyMatch(id, entry.username(), 0, distance));
+                    }
+                });
+                return found;
+            });
+            List<FuzzyMatch> matches = new ArrayList<>(candidates.size());
+            candidates.values().forEach(match -> matches.add(new FuzzyMatch(match.id(), match.username(),
+                    socialGraphIndex.followerCount(match.id()), match.distance())));
+            matches.sort(Comparator.comparingInt(FuzzyMatch::distance)
+                    .thenComparing(Comparator.comparingInt(FuzzyMatch::followers).reversed())
+                    .thenComparing(FuzzyMatch::username));
+            return List.copyOf(matches.subList(0, Math.min(limit, matches.size())));
+        });
+    }
+
+    // Levenshtein distance, or maxDistance + 1 once it is known to be larger.
+    private static int distance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int min = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitute = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitute, Math.min(previous[j], current[j - 1]) + 1);
+                min = Math.min(min, current[j]);
+            }
+            if (min > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], maxDistance + 1);
+    }
+
+    // Users committed while the table is read are applied on top, through the overlay.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        write(() -> changedDuringRefresh = new HashSet<>());
+        Keys keys = new Keys();
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("SELECT id, username, email FROM users WHERE deleted_at IS NULL",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAMING_FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            long id = resultSet.getLong(1);
+            String username = resultSet.getString(2);
+            keys.add(id, username, keysOf(username, resultSet.getString(3)));
+        });
+        PrefixIndex next = keys.build();
+        write(() -> swap(next));
+        log.info("User typeahead index rebuilt with {} keys in {} ms", next.size(), System.currentTimeMillis() - start);
+    }
+
+    // Folds the overlay into a new snapshot with current follower counts.
+    @Scheduled(fixedDelayString = "${app.typeahead.refresh-ms:60000}", initialDelayString = "${app.typeahead.refresh-ms:60000}")
+    public synchronized void refresh() {
+        PrefixIndex[] current = new PrefixIndex[1];
+        Map<Long, Entry> overlay = new HashMap<>();
+        Set<Long> hidden = new HashSet<>();
+        write(() -> {
+            current[0] = snapshot;
+            overlay.putAll(pending);
+            hidden.addAll(stale);
+            changedDuringRefresh = new HashSet<>();
+        });
+        Keys keys = new Keys();
+        for (int entry = 0; entry < current[0].size(); entry++) {
+            long id = current[0].id(entry);
+            if (!hidden.contains(id)) {
+                keys.add(id, current[0].username(entry), new String[]{current[0].key(entry)});
+            }
+        }
+        overlay.forEach((id, entry) -> keys.add(id, entry.username(), entry.keys()));
+        PrefixIndex next = keys.build();
+        write(() -> swap(next));
+    }
+
+    // Called with the write lock held.
+    private void changed(long userId) {
+        stale.add(userId);
+        if (changedDuringRefresh != null) {
+            changedDuringRefresh.add(userId);
+        }
+    }
+
+    // Installs a snapshot built while changedDuringRefresh was recording; called with the write lock held.
+    private void swap(PrefixIndex next) {
+        snapshot = next;
+        pending.keySet().retainAll(changedDuringRefresh);
+        stale.retainAll(changedDuringRefresh);
+        changedDuringRefresh = null;
+    }
+
+    // The username key always comes first.
+    private static String[] keysOf(String username, String email) {
+        String name = username == null ? "" : username.toLowerCase(Locale.ROOT);
+        String local = email == null ? "" : email.substring(0, Math.max(0, email.indexOf('@'))).toLowerCase(Locale.ROOT);
+        if (local.isEmpty() || local.equals(name)) {
+            return new String[]{name};
+        }
+        return new String[]{name, local};
+    }
+
+    // Snapshot entries being collected, with follower counts looked up as they are added.
+    private class Keys {
+        private String[] keys = new String[1024];
+        private long[] ids = new long[1024];
+        private String[] usernames = new String[1024];
+        private int[] followers = new int[1024];
+        private int size;
+
+        void add(long id, String username, String[] userKeys) {
+            int count = socialGraphIndex.followerCount(id);
+            for (String key : userKeys) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                    ids = Arrays.copyOf(ids, size * 2);
+                    usernames = Arrays.copyOf(usernames, size * 2);
+                    followers = Arrays.copyOf(followers, size * 2);
+                }
+                keys[size] = key;
+                ids[size] = id;
+                usernames[size] = username;
+                followers[size] = count;
+                size++;
+            }
+        }
+
+        PrefixIndex build() {
+            return PrefixIndex.build(keys, ids, usernames, followers, size);
+        }
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
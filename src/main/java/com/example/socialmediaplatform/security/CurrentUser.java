@@ -0,0 +1,30 @@
+package com.example.socialmediaplatform.security;
+
+import com.example.socialmediaplatform.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+// The authenticated user of the current request. Its id comes from the UserPrincipal set by
+// JwtAuthenticationFilter or the login; only other principals (e.g. a bare username) fall back to a lookup.
+@Component
+public class CurrentUser {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // The username for principals resolved by CustomUserDetailsService, whatever name the user logged in with.
+    public String getUsername() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    public Long getId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof UserPrincipal principal && principal.getId() != null) {
+            return principal.getId();
+        }
+        return userRepository.findIdByUsernameOrEmail(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
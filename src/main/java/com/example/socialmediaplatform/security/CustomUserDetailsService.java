@@ -3,9 +3,12 @@ package com.example.socialmediaplatform.security;
 
 import com.example.socialmediaplatform.model.User;
 import com.example.socialmediaplatform.repository.UserRepository;
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,30 +17,108 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+// Resolves users for login and the principal of every authenticated request. Principals are cached per
+// username or email for `user-cache-ttl-ms`, at most `user-cache-max-entries` of them; UserService
+// invalidates a user's entries when it updates or deletes the user. Hits and misses are counted under
+// security.user.cache.
+//
+// A principal is read before it is cached, so a read from before an invalidation could be stored after it.
+// Every invalidation bumps a stamp, and an entry whose read overlapped one is dropped again. The username is
+// the key and the user id is unknown until the read, so the stamp is global. Invalidations are rare (updates
+// and deletions), so the only cost is an occasional extra miss.
 @Slf4j
 @Service
-@AllArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.security.user-cache-ttl-ms:60000}")
+    private long cacheTtlMs;
+
+    @Value("${app.security.user-cache-max-entries:100000}")
+    private int cacheMaxEntries;
+
+    private record CachedUser(long userId, String username, String role, long expiresAt) {
+    }
+
+    private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private Counter cacheHits;
+    private Counter cacheMisses;
+
+    @PostConstruct
+    void registerMetrics() {
+        cacheHits = Counter.builder("security.user.cache").tag("result", "hit").register(meterRegistry);
+        cacheMisses = Counter.builder("security.user.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    // Used by the AuthenticationManager to check passwords at login, so it always reads the database.
     @Override
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
         log.info("CustomerUserDetailsService - loadUserByUsername");
 
-        User user = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("User not exists by Username or Email"));
+        User user = findUser(usernameOrEmail);
         //log.info("Found user: {}",user);
-        GrantedAuthority authority = new SimpleGrantedAuthority( user.getRole());
+        return toUserDetails(user.getId(), user.getUsername(), user.getPassword(), user.getRole());
+    }
+
+    // Principal of an already authenticated request (see JwtAuthenticationFilter), cached. It carries no
+    // password. Like the login principal it is named by the username, whichever name the token was issued for.
+    public UserPrincipal loadPrincipal(String usernameOrEmail) throws UsernameNotFoundException {
+        CachedUser cached = cache.get(usernameOrEmail);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            cacheHits.increment();
+            return toUserDetails(cached.userId(), cached.username(), "", cached.role());
+        }
+        cacheMisses.increment();
+
+        long stamp = invalidations.get();
+        User user = findUser(usernameOrEmail);
+        if (cache.size() >= cacheMaxEntries) {
+            cache.values().removeIf(entry -> entry.expiresAt() <= System.currentTimeMillis());
+            if (cache.size() >= cacheMaxEntries) {
+                cache.clear();
+            }
+        }
+        CachedUser entry = new CachedUser(user.getId(), user.getUsername(), user.getRole(), System.currentTimeMillis() + cacheTtlMs);
+        cache.put(usernameOrEmail, entry);
+        if (invalidations.get() != stamp) {
+            // an invalidation ran during the read; one that starts after this check removes the entry itself
+            cache.remove(usernameOrEmail, entry);
+        }
+        return toUserDetails(user.getId(), user.getUsername(), "", user.getRole());
+    }
+
+    // Drops the cached principal of a user whose credentials, role or names changed, or who was deleted.
+    public void invalidate(long userId) {
+        invalidations.incrementAndGet();
+        cache.values().removeIf(entry -> entry.userId() == userId);
+    }
+
+    private User findUser(String usernameOrEmail) {
+        return userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail)
+                .filter(user -> !user.isDeleted())
+                .orElseThrow(() -> new UsernameNotFoundException("User not exists by Username or Email"));
+    }
+
+    static UserPrincipal toUserDetails(Long userId, String username, String password, String role) {
+        GrantedAuthority authority = new SimpleGrantedAuthority(role);
         Set<GrantedAuthority> authorities = new HashSet<>();
         authorities.add(authority);
 
-        return new org.springframework.security.core.userdetails.User(
-                usernameOrEmail,
-                user.getPassword(),
+        return new UserPrincipal(
+                userId,
+                username,
+                password,
                 authorities
         );
     }
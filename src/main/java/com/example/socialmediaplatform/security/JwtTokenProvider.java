@@ -1,17 +1,35 @@
 package com.example.socialmediaplatform.security;
 
-import org.springframework.stereotype.Component;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.PropertySource;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+
 import javax.crypto.SecretKey;
-import java.security.Key;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+// Issues and verifies the HMAC-signed JWTs. The key and parser are built once. Verified claims are cached
+// by the token's SHA-256 until the token expires, so a client repeating its token skips the signature check;
+// the cache holds at most `cache-max-tokens` entries.
+//
+// With `stateless-principal` on, tokens also carry the user's id and role, and requests authenticate from
+// them alone (see principalOf). A role change or deleted account then only takes effect once the user's
+// tokens expire.
 @Component
 public class JwtTokenProvider {
     @Value("${app.jwt-secret}")
@@ -20,6 +38,36 @@ public class JwtTokenProvider {
     @Value("${app.jwt-expiration-milliseconds}")
     private long jwtExpirationDate;
 
+    @Value("${app.jwt.cache-max-tokens:100000}")
+    private int cacheMaxTokens;
+
+    @Value("${app.jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
+
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private record VerifiedToken(Claims claims, long expiresAt) {
+    }
+
+    private SecretKey key;
+    private JwtParser parser;
+    private final Map<ByteBuffer, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    private Counter cacheHits;
+    private Counter cacheMisses;
+
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser().verifyWith(key).build();
+        cacheHits = Counter.builder("jwt.verify.cache").tag("result", "hit").register(meterRegistry);
+        cacheMisses = Counter.builder("jwt.verify.cache").tag("result", "miss").register(meterRegistry);
+    }
+
     // generate JWT token
     public String generateToken(Authentication authentication){
 
@@ -29,38 +77,74 @@ public class JwtTokenProvider {
 
         Date expireDate = new Date(currentDate.getTime() + jwtExpirationDate);
 
-        String token = Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(username)
                 .issuedAt(new Date())
-                .expiration(expireDate)
-                .signWith(key())
-                .compact();
+                .expiration(expireDate);
+        if (statelessPrincipal && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            builder.claim(USER_ID_CLAIM, principal.getId())
+                    .claim(ROLE_CLAIM, principal.getAuthorities().iterator().next().getAuthority());
+        }
+        String token = builder.signWith(key).compact();
 
         return token;
     }
 
-    private Key key(){
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    // The principal carried by verified claims, or null when stateless principals are off or the token was
+    // issued without the id and role claims.
+    public UserPrincipal principalOf(Claims claims){
+        if (!statelessPrincipal) {
+            return null;
+        }
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        return CustomUserDetailsService.toUserDetails(userId, claims.getSubject(), "", role);
+    }
+
+    // Verifies the token's signature and expiry once and returns its claims. Throws a JwtException for an
+    // invalid or expired token.
+    public Claims verify(String token){
+        ByteBuffer hash = sha256(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verified.get(hash);
+        if (cached != null && cached.expiresAt() > now) {
+            cacheHits.increment();
+            return cached.claims();
+        }
+        cacheMisses.increment();
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            if (verified.size() >= cacheMaxTokens) {
+                verified.values().removeIf(entry -> entry.expiresAt() <= now);
+                if (verified.size() >= cacheMaxTokens) {
+                    verified.clear();
+                }
+            }
+            verified.put(hash, new VerifiedToken(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
     }
 
     // get username from JWT token
     public String getUsername(String token){
-
-        return Jwts.parser()
-                .verifyWith((SecretKey) key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return verify(token).getSubject();
     }
 
     // validate JWT token
     public boolean validateToken(String token){
-        Jwts.parser()
-                .verifyWith((SecretKey) key())
-                .build()
-                .parse(token);
+        verify(token);
         return true;
+    }
 
+    private static ByteBuffer sha256(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM ships SHA-256
+        }
     }
 }
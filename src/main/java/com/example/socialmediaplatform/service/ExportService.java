@@ -0,0 +1,127 @@
+package com.example.socialmediaplatform.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+// NDJSON exports of whole tables for the data warehouse, one JSON object per line. Rows are read through a
+// forward-only, read-only cursor and written to the output as they arrive, so memory stays constant however
+// large the table is; the output is flushed every `flush-rows` rows. Deleted users and their posts are left
+// out, and passwords are never exported.
+@Slf4j
+@Service
+public class ExportService {
+
+    // Connector/J streams a result set row by row only with this fetch size (unless useCursorFetch is set);
+    // any other value buffers the whole result in memory.
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.export.flush-rows:1000}")
+    private int flushRows;
+
+    private Counter exportedPosts;
+    private Counter exportedUsers;
+
+    @PostConstruct
+    void registerMetrics() {
+        exportedPosts = Counter.builder("export.rows").tag("table", "posts").register(meterRegistry);
+        exportedUsers = Counter.builder("export.rows").tag("table", "users").register(meterRegistry);
+    }
+
+    private interface RowWriter {
+        void write(ResultSet resultSet, JsonGenerator json) throws SQLException, IOException;
+    }
+
+    // 1. Posts with their author, in id order
+    public long exportPosts(OutputStream out) throws IOException {
+        log.info("ExportService - exportPosts()");
+        return export(out, "SELECT p.id, p.user_id, u.username, p.content, p.timestamp, p.like_count " +
+                "FROM posts p JOIN users u ON u.id = p.user_id WHERE u.deleted_at IS NULL ORDER BY p.id", exportedPosts, (row, json) -> {
+            json.writeNumberField("id", row.getLong(1));
+            json.writeNumberField("userId", row.getLong(2));
+            json.writeStringField("username", row.getString(3));
+            json.writeStringField("content", row.getString(4));
+            writeTimestamp(json, "createdAt", row.getTimestamp(5));
+            json.writeNumberField("likes", row.getLong(6));
+        });
+    }
+
+    // 2. Users, in id order
+    public long exportUsers(OutputStream out) throws IOException {
+        log.info("ExportService - exportUsers()");
+        return export(out, "SELECT id, username, email, profile_picture, bio, role FROM users " +
+                "WHERE deleted_at IS NULL ORDER BY id", exportedUsers, (row, json) -> {
+            json.writeNumberField("id", row.getLong(1));
+            json.writeStringField("username", row.getString(2));
+            json.writeStringField("email", row.getString(3));
+            json.writeStringField("profilePicture", row.getString(4));
+            json.writeStringField("bio", row.getString(5));
+            json.writeStringField("role", row.getString(6));
+        });
+    }
+
+    private long export(OutputStream out, String sql, Counter exported, RowWriter rowWriter) throws IOException {
+        long start = System.currentTimeMillis();
+        long[] rows = {0};
+        // the response stream is closed by the container
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(STREAMING_FETCH_SIZE);
+                return statement;
+            }, resultSet -> {
+                try {
+                    json.writeStartObject();
+                    rowWriter.write(resultSet, json);
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                    if (++rows[0] % flushRows == 0) {
+                        json.flush();
+                        exported.increment(flushRows);
+                    }
+                } catch (IOException e) {
+                    // the client went away; stop reading
+                    throw new UncheckedIOException(e);
+                }
+            });
+            json.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        exported.increment(rows[0] % flushRows);
+        log.info("Exported {} rows in {} ms", rows[0], System.currentTimeMillis() - start);
+        return rows[0];
+    }
+
+    private static void writeTimestamp(JsonGenerator json, String field, Timestamp timestamp) throws IOException {
+        if (timestamp == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeStringField(field, timestamp.toLocalDateTime().toString());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.socialmediaplatform.service;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+// K-way merge of post id lists that are each sorted newest first. Duplicates across sources are emitted once.
+final class FeedMerger {
+
+    private FeedMerger() {
+    }
+
+    static long[] merge(long[][] sources, int limit) {
+        // heap entries are {sourceIndex, position}, ordered by the id they point at, largest first
+        PriorityQueue<int[]> heap = new PriorityQueue<>(Math.max(1, sources.length),
+                (a, b) -> Long.compare(sources[b[0]][b[1]], sources[a[0]][a[1]]));
+        for (int i = 0; i < sources.length; i++) {
+            if (sources[i].length > 0) {
+                heap.add(new int[]{i, 0});
+            }
+        }
+
+        long[] merged = new long[limit];
+        int count = 0;
+        while (count < limit && !heap.isEmpty()) {
+            int[] head = heap.poll();
+            long id = sources[head[0]][head[1]];
+            if (count == 0 || merged[count - 1] != id) {
+                merged[count++] = id;
+            }
+            if (++head[1] < sources[head[0]].length) {
+                heap.add(head);
+            }
+        }
+        return count == limit ? merged : Arrays.copyOf(merged, count);
+    }
+}
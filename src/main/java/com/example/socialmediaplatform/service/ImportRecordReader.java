@@ -0,0 +1,114 @@
+package com.example.socialmediaplatform.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Records of an upload read one at a time as field name -> value maps: NDJSON (one JSON object per line) or
+// CSV with a header line (RFC 4180 quoting, quoted fields may span lines).
+abstract class ImportRecordReader {
+
+    // The next record, or null at the end of the input.
+    abstract Map<String, String> next() throws IOException;
+
+    static ImportRecordReader of(InputStream in, String contentType, ObjectMapper objectMapper) throws IOException {
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("text/csv")) {
+            return new Csv(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        }
+        return new Ndjson(objectMapper.readerFor(Map.class).readValues(in));
+    }
+
+    private static class Ndjson extends ImportRecordReader {
+        private final MappingIterator<Map<String, Object>> records;
+
+        private Ndjson(MappingIterator<Map<String, Object>> records) {
+            this.records = records;
+        }
+
+        @Override
+        Map<String, String> next() throws IOException {
+            if (!records.hasNextValue()) {
+                return null;
+            }
+            Map<String, String> record = new HashMap<>();
+            records.nextValue().forEach((field, value) -> record.put(field, value == null ? null : value.toString()));
+            return record;
+        }
+    }
+
+    private static class Csv extends ImportRecordReader {
+        private final Reader in;
+        private final List<String> header;
+
+        private Csv(Reader in) throws IOException {
+            this.in = in;
+            List<String> names = fields();
+            this.header = names == null ? List.of() : names;
+        }
+
+        @Override
+        Map<String, String> next() throws IOException {
+            List<String> values = fields();
+            if (values == null) {
+                return null;
+            }
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                record.put(header.get(i), values.get(i).isEmpty() ? null : values.get(i));
+            }
+            return record;
+        }
+
+        // The fields of the next line, or null at the end of the input. Empty lines are skipped; a line holding
+        // only `""` is a record with one empty field.
+        private List<String> fields() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean line = false; // any character but the line break seen on this line
+            int c;
+            while ((c = in.read()) != -1) {
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    in.mark(1);
+                    if (in.read() == '"') {
+                        field.append('"'); // escaped quote
+                    } else {
+                        in.reset();
+                        quoted = false;
+                    }
+                    continue;
+                }
+                if (c == '\n') {
+                    if (line) {
+                        break;
+                    }
+                    continue;
+                }
+                if (c == '\r') {
+                    continue;
+                }
+                line = true;
+                if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append((char) c);
+                }
+            }
+            if (!line) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.example.socialmediaplatform.service;
+
+import com.example.socialmediaplatform.dto.ImportResultDTO;
+import com.example.socialmediaplatform.graph.SocialGraphIndex;
+import com.example.socialmediaplatform.search.PostSearchIndex;
+import com.example.socialmediaplatform.search.UserTypeaheadIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Bulk imports of users, posts and follows from NDJSON or CSV uploads, for seeding and migrations. The upload
+// is read one record at a time and cut into batches of `batch-size` rows; each batch is written by one of
+// `workers` threads as a single multi-row INSERT IGNORE, so neither IDENTITY ids nor per-row round trips
+// limit throughput. Usernames are resolved to ids through a map of all users loaded once per import, and
+// passwords are hashed on the workers unless the record already carries a bcrypt hash.
+//
+// Every import has an id. A batch commits together with a row in import_batches, so re-sending the same
+// upload with the same id skips the batches already written and resumes an import that was interrupted.
+// Once the workers are done the in-memory indexes read back only the rows above the table's highest id from
+// before the import, without locking them for a full rebuild.
+@Slf4j
+@Service
+public class ImportService {
+
+    public enum Kind { USERS, POSTS, FOLLOWS }
+
+    // Connector/J streams a result set row by row only with this fetch size.
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserTypeaheadIndex userTypeaheadIndex;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.import.batch-size:1000}")
+    private int defaultBatchSize;
+
+    @Value("${app.import.workers:4}")
+    private int workers;
+
+    @Value("${app.import.progress-log-ms:5000}")
+    private long progressLogMs;
+
+    // State of one import run, shared by the reader and the workers.
+    private class Run {
+        private final String importId;
+        private final Kind kind;
+        private final Counter importedRows;
+        private final Map<String, Long> userIds;
+        private final Set<Long> touchedUsers = ConcurrentHashMap.newKeySet();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        private Run(String importId, Kind kind, Map<String, Long> userIds) {
+            this.importId = importId;
+            this.kind = kind;
+            this.userIds = userIds;
+            this.importedRows = Counter.builder("import.rows").tag("kind", kind.name().toLowerCase(Locale.ROOT)).register(meterRegistry);
+        }
+    }
+
+    // 1. Import the records of an upload; `importId` names a previous, interrupted run to resume
+    public ImportResultDTO importRecords(Kind kind, String importId, InputStream in, String contentType) throws IOException {
+        log.info("ImportService - importRecords()");
+        long start = System.currentTimeMillis();
+        String id = importId == null || importId.isBlank() ? UUID.randomUUID().toString() : importId;
+        int batchSize = openImport(id, kind);
+        Set<Long> doneBatches = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT batch_no FROM import_batches WHERE import_id = ?", Long.class, id));
+        Run run = new Run(id, kind, kind == Kind.USERS ? Map.of() : loadUserIds());
+        long maxIdBefore = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + tableOf(kind), Long.class);
+
+        // a full queue makes the reader write the batch itself, which keeps it from running ahead
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        long read = 0;
+        long lastLog = start;
+        try {
+            ImportRecordReader records = ImportRecordReader.of(in, contentType, objectMapper);
+            List<Map<String, String>> batch = new ArrayList<>(batchSize);
+            long batchNo = 0;
+            Map<String, String> record;
+            while (run.failure.get() == null && (record = records.next()) != null) {
+                read++;
+                batch.add(record);
+                if (batch.size() == batchSize) {
+                    submit(pool, run, batchNo++, batch, doneBatches);
+                    batch = new ArrayList<>(batchSize);
+                }
+                if (System.currentTimeMillis() - lastLog >= progressLogMs) {
+                    lastLog = System.currentTimeMillis();
+                    log.info("Import {}: {} rows read, {} imported, {} rows/s", id, read, run.imported.get(),
+                            rowsPerSecond(run.imported.get(), lastLog - start));
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(pool, run, batchNo, batch, doneBatches);
+            }
+        } finally {
+            pool.shutdown();
+            awaitWorkers(pool);
+            // batches committed before a failure are indexed too
+            refreshIndexes(run, maxIdBefore);
+        }
+        if (run.failure.get() != null) {
+            throw run.failure.get();
+        }
+
+        jdbcTemplate.update("UPDATE import_jobs SET rows_imported = rows_imported + ?, completed_at = CURRENT_TIMESTAMP WHERE id = ?",
+                run.imported.get(), id);
+        long elapsedMs = System.currentTimeMillis() - start;
+        double rate = rowsPerSecond(run.imported.get(), elapsedMs);
+        log.info("Import {} of {} done: {} rows read, {} imported, {} skipped, {} rejected in {} ms ({} rows/s)", id, kind,
+                read, run.imported.get(), run.skipped.get(), run.rejected.get(), elapsedMs, rate);
+        return new ImportResultDTO(id, kind.name(), read, run.imported.get(), run.skipped.get(), run.rejected.get(), elapsedMs, rate);
+    }
+
+    // Registers a new import or checks that a resumed one is of the same kind. A resumed import keeps the batch
+    // size it started with, so the batch numbers of the re-sent records line up.
+    private int openImport(String importId, Kind kind) {
+        jdbcTemplate.update("INSERT IGNORE INTO import_jobs (id, kind, batch_size) VALUES (?, ?, ?)",
+                importId, kind.name(), defaultBatchSize);
+        Map<String, Object> job = jdbcTemplate.queryForMap("SELECT kind, batch_size FROM import_jobs WHERE id = ?", importId);
+        if (!kind.name().equals(job.get("kind"))) {
+            throw new RuntimeException("Import " + importId + " is a " + job.get("kind") + " import");
+        }
+        return ((Number) job.get("batch_size")).intValue();
+    }
+
+    // Username -> id of every user that is not deleted, read through a streaming cursor.
+    private Map<String, Long> loadUserIds() {
+        long start = System.currentTimeMillis();
+        Map<String, Long> userIds = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("SELECT id, username FROM users WHERE deleted_at IS NULL",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAMING_FETCH_SIZE);
+            return statement;
+        }, resultSet -> userIds.put(resultSet.getString(2), resultSet.getLong(1)));
+        log.info("Loaded {} usernames in {} ms", userIds.size(), System.currentTimeMillis() - start);
+        return userIds;
+    }
+
+    private void submit(ThreadPoolExecutor pool, Run run, long batchNo, List<Map<String, String>> batch, Set<Long> doneBatches) {
+        if (doneBatches.contains(batchNo)) {
+            run.skipped.addAndGet(batch.size());
+            return;
+        }
+        pool.execute(() -> {
+            if (run.failure.get() != null) {
+                return;
+            }
+            try {
+                write(run, batchNo, batch);
+            } catch (RuntimeException e) {
+                log.error("Import {} failed at batch {}", run.importId, batchNo, e);
+                run.failure.compareAndSet(null, e);
+            }
+        });
+    }
+
+    // Converts the records outside the transaction (hashing is the slow part), then writes the rows and the
+    // checkpoint together.
+    private void write(Run run, long batchNo, List<Map<String, String>> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Map<String, String> record : batch) {
+            Object[] row = switch (run.kind) {
+                case USERS -> userRow(record);
+                case POSTS -> postRow(run, record);
+                case FOLLOWS -> followRow(run, record);
+            };
+            if (row == null) {
+                run.rejected.incrementAndGet();
+            } else {
+                rows.add(row);
+            }
+        }
+
+        Integer written = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update("INSERT IGNORE INTO import_batches (import_id, batch_no) VALUES (?, ?)", run.importId, batchNo) == 0) {
+                return null; // written by a concurrent run with the same id
+            }
+            return switch (run.kind) {
+                case USERS -> insert("INSERT IGNORE INTO users (username, email, password, profile_picture, bio, role) VALUES ",
+                        "(?, ?, ?, ?, ?, ?)", rows);
+                case POSTS -> insertPosts(rows);
+                case FOLLOWS -> insert("INSERT IGNORE INTO follows (follower_id, following_id) VALUES ", "(?, ?)", rows);
+            };
+        });
+        if (written == null) {
+            run.skipped.addAndGet(batch.size());
+            return;
+        }
+        // users and follows left out by INSERT IGNORE already existed; posts left out lost their author
+        run.imported.addAndGet(written);
+        if (run.kind == Kind.POSTS) {
+            run.rejected.addAndGet(rows.size() - written);
+        } else {
+            run.skipped.addAndGet(rows.size() - written);
+        }
+        run.importedRows.increment(written);
+        if (run.kind != Kind.USERS) {
+            rows.forEach(row -> run.touchedUsers.add((Long) row[0]));
+        }
+    }
+
+    // One multi-row INSERT for the whole batch.
+    private int insert(String prefix, String placeholders, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>(rows.size() * rows.get(0).length);
+        rows.forEach(row -> Collections.addAll(args, row));
+        return jdbcTemplate.update(prefix + String.join(", ", Collections.nCopies(rows.size(), placeholders)), args.toArray());
+    }
+
+    // Posts only go in for authors that still exist and are not deleted: an author deleted after the usernames
+    // were loaded would otherwise fail the whole batch on the foreign key, or get posts nobody can see.
+    private int insertPosts(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>(rows.size() * 3);
+        rows.forEach(row -> Collections.addAll(args, row));
+        String values = "SELECT ? AS user_id, ? AS content, ? AS created_at"
+                + " UNION ALL SELECT ?, ?, ?".repeat(rows.size() - 1);
+        return jdbcTemplate.update("INSERT IGNORE INTO posts (user_id, content, timestamp)"
+                + " SELECT v.user_id, v.content, COALESCE(v.created_at, CURRENT_TIMESTAMP) FROM (" + values + ") v"
+                + " JOIN users u ON u.id = v.user_id AND u.deleted_at IS NULL", args.toArray());
+    }
+
+    // username, email, password or passwordHash, profilePicture, bio, role (USER when missing)
+    private Object[] userRow(Map<String, String> record) {
+        String username = record.get("username");
+        String email = record.get("email");
+        String hash = record.get("passwordHash");
+        String password = record.get("password");
+        if (username == null || email == null || (hash == null && password == null)) {
+            return null;
+        }
+        if (hash == null || !hash.startsWith("$2")) {
+            if (password == null) {
+                return null;
+            }
+            hash = passwordEncoder.encode(password);
+        }
+        String role = record.get("role");
+        return new Object[]{username, email, hash, record.get("profilePicture"), record.get("bio"), role == null ? "USER" : role};
+    }
+
+    // username (the author), content, createdAt (ISO local date-time, now when missing)
+    private Object[] postRow(Run run, Map<String, String> record) {
+        Long userId = record.get("username") == null ? null : run.userIds.get(record.get("username"));
+        String content = record.get("content");
+        if (userId == null || content == null) {
+            return null;
+        }
+        Timestamp createdAt = null;
+        if (record.get("createdAt") != null) {
+            try {
+                createdAt = Timestamp.valueOf(LocalDateTime.parse(record.get("createdAt")));
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        return new Object[]{userId, content, createdAt};
+    }
+
+    // follower, following (usernames)
+    private Object[] followRow(Run run, Map<String, String> record) {
+        Long followerId = record.get("follower") == null ? null : run.userIds.get(record.get("follower"));
+        Long followingId = record.get("following") == null ? null : run.userIds.get(record.get("following"));
+        if (followerId == null || followingId == null || followerId.equals(followingId)) {
+            return null;
+        }
+        return new Object[]{followerId, followingId};
+    }
+
+    private void awaitWorkers(ThreadPoolExecutor pool) {
+        try {
+            if (!pool.awaitTermination(1, TimeUnit.HOURS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The rows bypassed the entity listeners, so the indexes read back the rows with ids above `afterId` one by
+    // one; rows other users wrote meanwhile are in there too and indexing them again changes nothing. Timelines
+    // of the followers of imported authors, and of imported followers, are dropped and rebuilt on their next read.
+    private void refreshIndexes(Run run, long afterId) {
+        if (run.imported.get() == 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        switch (run.kind) {
+            case USERS -> readBack("SELECT id, username, email FROM users WHERE id > ? AND deleted_at IS NULL", afterId,
+                    resultSet -> userTypeaheadIndex.put(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3)));
+            case POSTS -> {
+                readBack("SELECT p.id, p.content, p.timestamp, p.like_count FROM posts p JOIN users u ON u.id = p.user_id "
+                        + "WHERE p.id > ? AND u.deleted_at IS NULL", afterId, resultSet -> {
+                    Timestamp createdAt = resultSet.getTimestamp(3);
+                    postSearchIndex.index(resultSet.getLong(1), resultSet.getString(2),
+                            createdAt == null ? null : createdAt.toLocalDateTime(), resultSet.getLong(4));
+                });
+                for (Long authorId : run.touchedUsers) {
+                    for (long followerId : socialGraphIndex.followersOf(authorId)) {
+                        timelineService.invalidate(followerId);
+                    }
+                }
+            }
+            case FOLLOWS -> {
+                readBack("SELECT follower_id, following_id FROM follows WHERE id > ?", afterId,
+                        resultSet -> socialGraphIndex.addFollow(resultSet.getLong(1), resultSet.getLong(2)));
+                run.touchedUsers.forEach(timelineService::invalidate);
+            }
+        }
+        log.info("Import {}: indexes refreshed in {} ms", run.importId, System.currentTimeMillis() - start);
+    }
+
+    private void readBack(String sql, long afterId, RowCallbackHandler row) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAMING_FETCH_SIZE);
+            statement.setLong(1, afterId);
+            return statement;
+        }, row);
+    }
+
+    private static String tableOf(Kind kind) {
+        return switch (kind) {
+            case USERS -> "users";
+            case POSTS -> "posts";
+            case FOLLOWS -> "follows";
+        };
+    }
+
+    private static double rowsPerSecond(long rows, long elapsedMs) {
+        return rows * 1000.0 / Math.max(1, elapsedMs);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.socialmediaplatform.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Accumulates like count deltas per post in striped LongAdders and flushes them to posts.like_count in
+// JDBC batches, so a burst of likes on one post becomes one UPDATE per flush instead of one per like.
+@Slf4j
+@Component
+public class LikeCounter {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.likes.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    private final Map<Long, LongAdder> deltas = new ConcurrentHashMap<>();
+
+    private Counter flushedRows;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("likes.counter.pending.posts", deltas, Map::size)
+                .description("Posts with like count deltas not yet flushed")
+                .register(meterRegistry);
+        flushedRows = Counter.builder("likes.counter.flushed.rows")
+                .description("posts.like_count rows updated by the flusher")
+                .register(meterRegistry);
+    }
+
+    public void add(Long postId, long delta) {
+        LongAdder adder = deltas.computeIfAbsent(postId, id -> new LongAdder());
+        adder.add(delta);
+        if (deltas.get(postId) != adder) {
+            // the flusher retired this adder between our lookup and our add; move what it did not drain
+            // (sumThenReset is atomic per cell, so nothing is counted twice)
+            long orphaned = adder.sumThenReset();
+            if (orphaned != 0) {
+                deltas.computeIfAbsent(postId, id -> new LongAdder()).add(orphaned);
+            }
+        }
+    }
+
+    // Delta not yet written to the database, to be added to a like_count read from it.
+    public long pending(Long postId) {
+        LongAdder adder = deltas.get(postId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${app.likes.flush-interval-ms:1000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : deltas.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta == 0 && deltas.remove(entry.getKey(), entry.getValue())) {
+                // idle since the last flush: retired, then drained once more for adds that raced the removal
+                delta = entry.getValue().sumThenReset();
+            }
+            if (delta != 0) {
+                batch.add(new Object[]{delta, entry.getKey()});
+            }
+            if (batch.size() >= flushBatchSize) {
+                write(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<Object[]> batch) {
+        try {
+            jdbcTemplate.batchUpdate("UPDATE posts SET like_count = like_count + ? WHERE id = ?", batch);
+            flushedRows.increment(batch.size());
+        } catch (RuntimeException e) {
+            log.error("Flushing {} like counts failed, keeping them for the next flush", batch.size(), e);
+            for (Object[] row : batch) {
+                add((Long) row[1], (Long) row[0]);
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.socialmediaplatform.service;
+
+import com.example.socialmediaplatform.model.PostLikeId;
+import com.example.socialmediaplatform.search.PostSearchIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind ingestion of likes and unlikes. Request threads enqueue into a bounded queue; a single writer
+// thread drains it every `batch-max-wait-ms` or `batch-size` items and keeps the last operation per
+// (post, user) pair. Per post, likes are written with one multi-row INSERT IGNORE and unlikes with one
+// DELETE by composite key, so both are idempotent and the affected row counts are exactly the deltas to
+// apply to the post's like counter.
+//
+// Durability modes: SYNC completes the caller once its batch is committed (group commit), ASYNC acknowledges
+// as soon as the operation is queued and may lose queued operations if the process dies.
+@Slf4j
+@Component
+public class LikeIngestionPipeline {
+
+    public enum Durability { SYNC, ASYNC }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LikeCounter likeCounter;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.likes.durability:SYNC}")
+    private Durability durability;
+
+    @Value("${app.likes.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${app.likes.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.likes.batch-max-wait-ms:5}")
+    private long batchMaxWaitMs;
+
+    @Value("${app.likes.enqueue-timeout-ms:100}")
+    private long enqueueTimeoutMs;
+
+    private BlockingQueue<PendingLike> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private DistributionSummary batchSizes;
+    private Counter duplicates;
+    private Counter inserted;
+    private Counter removed;
+
+    private static class PendingLike {
+        private final PostLikeId id;
+        private final boolean liked;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private PendingLike(PostLikeId id, boolean liked) {
+            this.id = id;
+            this.liked = liked;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("likes.pipeline.queue.depth", queue, Collection::size).register(meterRegistry);
+        batchSizes = DistributionSummary.builder("likes.pipeline.batch.size").register(meterRegistry);
+        duplicates = Counter.builder("likes.pipeline.duplicates")
+                .description("Operations superseded by a later one for the same (post, user) pair in the batch")
+                .register(meterRegistry);
+        inserted = Counter.builder("likes.pipeline.inserted").register(meterRegistry);
+        removed = Counter.builder("likes.pipeline.removed").register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::run, "like-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public CompletableFuture<Void> like(Long postId, Long userId) {
+        return submit(new PendingLike(new PostLikeId(postId, userId), true));
+    }
+
+    public CompletableFuture<Void> unlike(Long postId, Long userId) {
+        return submit(new PendingLike(new PostLikeId(postId, userId), false));
+    }
+
+    // Queues an operation. The future completes once its batch is committed.
+    private CompletableFuture<Void> submit(PendingLike like) {
+        try {
+            if (!queue.offer(like, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Too many pending likes, try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while queueing like");
+        }
+        return like.done;
+    }
+
+    private void run() {
+        List<PendingLike> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingLike first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchMaxWaitMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingLike next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Writing a batch of {} likes failed", batch.size(), e);
+                batch.forEach(like -> like.done.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingLike> batch) {
+        batchSizes.record(batch.size());
+
+        // the last operation per (post, user) wins
+        Map<PostLikeId, Boolean> finalState = new LinkedHashMap<>();
+        for (PendingLike like : batch) {
+            if (finalState.put(like.id, like.liked) != null) {
+                duplicates.increment();
+            }
+        }
+
+        // per post: users whose like must exist, users whose like must not
+        Map<Long, Set<Long>> likesByPost = new LinkedHashMap<>();
+        Map<Long, Set<Long>> unlikesByPost = new LinkedHashMap<>();
+        finalState.forEach((id, liked) -> (liked ? likesByPost : unlikesByPost)
+                .computeIfAbsent(id.getPostId(), postId -> new LinkedHashSet<>()).add(id.getUserId()));
+
+        Map<Long, Integer> deltas = transactionTemplate.execute(status -> {
+            Map<Long, Integer> counts = new HashMap<>();
+            likesByPost.forEach((postId, userIds) -> {
+                int added = insertIgnore(postId, userIds);
+                counts.merge(postId, added, Integer::sum);
+                inserted.increment(added);
+            });
+            unlikesByPost.forEach((postId, userIds) -> {
+                int deleted = delete(postId, userIds);
+                counts.merge(postId, -deleted, Integer::sum);
+                removed.increment(deleted);
+            });
+            return counts;
+        });
+
+        deltas.forEach((postId, delta) -> {
+            if (delta != 0) {
+                likeCounter.add(postId, delta);
+                postSearchIndex.addLikes(postId, delta);
+            }
+        });
+        batch.forEach(like -> like.done.complete(null));
+    }
+
+    private int insertIgnore(Long postId, Set<Long> userIds) {
+        String sql = "INSERT IGNORE INTO post_likes (post_id, user_id) VALUES " + String.join(", ", Collections.nCopies(userIds.size(), "(?, ?)"));
+        Object[] args = new Object[userIds.size() * 2];
+        int i = 0;
+        for (Long userId : userIds) {
+            args[i++] = postId;
+            args[i++] = userId;
+        }
+        return jdbcTemplate.update(sql, args);
+    }
+
+    private int delete(Long postId, Set<Long> userIds) {
+        String sql = "DELETE FROM post_likes WHERE post_id = ? AND user_id IN (" + String.join(", ", Collections.nCopies(userIds.size(), "?")) + ")";
+        Object[] args = new Object[userIds.size() + 1];
+        args[0] = postId;
+        int i = 1;
+        for (Long userId : userIds) {
+            args[i++] = userId;
+        }
+        return jdbcTemplate.update(sql, args);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // the writer drains what is still queued before exiting
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
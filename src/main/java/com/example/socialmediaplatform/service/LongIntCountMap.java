@@ -0,0 +1,89 @@
+package com.example.socialmediaplatform.service;
+
+import java.util.Arrays;
+
+// Open-addressing long -> int counter with linear probing, so counting millions of paths allocates no boxes.
+// Keys must not be Long.MIN_VALUE, which marks free slots. Not thread safe.
+final class LongIntCountMap {
+
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    LongIntCountMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    void increment(long key, int by) {
+        int slot = slot(keys, key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            if (++size * 4 > keys.length * 3) {
+                grow();
+                slot = slot(keys, key);
+            }
+        }
+        counts[slot] += by;
+    }
+
+    int get(long key) {
+        int slot = slot(keys, key);
+        return keys[slot] == FREE ? 0 : counts[slot];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void addAll(LongIntCountMap other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != FREE) {
+                increment(other.keys[i], other.counts[i]);
+            }
+        }
+    }
+
+    interface EntryConsumer {
+        void accept(long key, int count);
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                consumer.accept(keys[i], counts[i]);
+            }
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        Arrays.fill(keys, FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int slot(long[] keys, long key) {
+        int mask = keys.length - 1;
+        // ids are sequential, spread them before masking
+        long h = key * 0xff51afd7ed558ccdL;
+        h ^= h >>> 32;
+        int slot = (int) h & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.socialmediaplatform.service;
+
+import com.example.socialmediaplatform.dto.CommentResponseDTO;
+import com.example.socialmediaplatform.dto.PostResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+// Read-through cache of single post responses, bounded by an estimate of their heap size rather than by
+// count. It is a segmented LRU: a post enters the probation segment and moves to the protected segment
+// (`protected-ratio` of the budget) when it is read again, so a scan of once-read posts only churns probation
+// and cannot push out the posts that are read over and over. Entries expire after `ttl-ms`, which bounds how
+// long changes made outside PostService (like counts flushed in ASYNC mode, comments of deleted users) stay
+// invisible.
+//
+// The cache is split into `segments` independently locked shards. Every write to a shard bumps its stamp, and
+// a response loaded on a miss is only stored if the stamp did not move while it was read, so a load racing an
+// edit cannot put the old post back. Cached responses are shared between readers and must not be modified.
+@Component
+public class PostCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.posts.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${app.posts.cache.protected-ratio:0.8}")
+    private double protectedRatio;
+
+    @Value("${app.posts.cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${app.posts.cache.segments:16}")
+    private int segmentCount;
+
+    private record Entry(PostResponseDTO post, int bytes, long expiresAt) {
+    }
+
+    // One shard: both segments in LRU order (least recently used first), guarded by the shard's monitor.
+    private final class Segment {
+        private final LinkedHashMap<Long, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<Long, Entry> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+        private final long capacity;
+        private final long protectedCapacity;
+        private long probationBytes;
+        private long protectedBytes;
+        private long stamp;
+
+        private Segment(long capacity) {
+            this.capacity = capacity;
+            this.protectedCapacity = (long) (capacity * protectedRatio);
+        }
+
+        private PostResponseDTO get(long postId, long now) {
+            Entry entry = protectedEntries.get(postId);
+            if (entry != null) {
+                if (entry.expiresAt() > now) {
+                    return entry.post();
+                }
+                protectedEntries.remove(postId);
+                protectedBytes -= entry.bytes();
+                expirations.increment();
+                return null;
+            }
+            entry = probation.remove(postId);
+            if (entry == null) {
+                return null;
+            }
+            probationBytes -= entry.bytes();
+            if (entry.expiresAt() <= now) {
+                expirations.increment();
+                return null;
+            }
+            // read again: promoted, demoting the least recently used protected posts back to probation
+            protectedEntries.put(postId, entry);
+            protectedBytes += entry.bytes();
+            Iterator<Map.Entry<Long, Entry>> eldest = protectedEntries.entrySet().iterator();
+            while (protectedBytes > protectedCapacity && eldest.hasNext()) {
+                Map.Entry<Long, Entry> demoted = eldest.next();
+                if (demoted.getKey() == postId) {
+                    break;
+                }
+                eldest.remove();
+                protectedBytes -= demoted.getValue().bytes();
+                probation.put(demoted.getKey(), demoted.getValue());
+                probationBytes += demoted.getValue().bytes();
+            }
+            evict();
+            return entry.post();
+        }
+
+        private void add(long postId, PostResponseDTO post, long now) {
+            remove(postId);
+            Entry entry = new Entry(post, estimateBytes(post), now + ttlMs);
+            if (entry.bytes() > capacity) {
+                return;
+            }
+            probation.put(postId, entry);
+            probationBytes += entry.bytes();
+            evict();
+        }
+
+        private void remove(long postId) {
+            Entry entry = protectedEntries.remove(postId);
+            if (entry != null) {
+                protectedBytes -= entry.bytes();
+            }
+            entry = probation.remove(postId);
+            if (entry != null) {
+                probationBytes -= entry.bytes();
+            }
+        }
+
+        // Least recently used probation posts go first; protected posts only once probation is empty.
+        private void evict() {
+            while (probationBytes + protectedBytes > capacity) {
+                LinkedHashMap<Long, Entry> from = probation.isEmpty() ? protectedEntries : probation;
+                Iterator<Entry> eldest = from.values().iterator();
+                Entry entry = eldest.next();
+                eldest.remove();
+                if (from == probation) {
+                    probationBytes -= entry.bytes();
+                } else {
+                    protectedBytes -= entry.bytes();
+                }
+                evictions.increment();
+            }
+        }
+    }
+
+    private Segment[] segments;
+    private SingleFlight<Long, PostResponseDTO> loads;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+    private Counter expirations;
+
+    @PostConstruct
+    void start() {
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maxBytes / segmentCount);
+        }
+        loads = new SingleFlight<>("posts", meterRegistry);
+        hits = Counter.builder("posts.cache").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("posts.cache").tag("result", "miss").register(meterRegistry);
+        evictions = Counter.builder("posts.cache.evictions").tag("cause", "size").register(meterRegistry);
+        expirations = Counter.builder("posts.cache.evictions").tag("cause", "expired").register(meterRegistry);
+        Gauge.builder("posts.cache.hit.ratio", this, PostCache::hitRatio).register(meterRegistry);
+        Gauge.builder("posts.cache.entries", this, PostCache::size).register(meterRegistry);
+        Gauge.builder("posts.cache.bytes", this, PostCache::estimatedBytes)
+                .description("Estimated heap held by cached post responses")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // The cached post, or the one `loader` reads (which may throw, e.g. for a missing post). Concurrent misses on
+    // the same post share one load, and only the caller that ran it stores the result.
+    public PostResponseDTO get(long postId, LongFunction<PostResponseDTO> loader) {
+        Segment segment = segmentOf(postId);
+        synchronized (segment) {
+            PostResponseDTO cached = segment.get(postId, System.currentTimeMillis());
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        return loads.load(postId, id -> {
+            long stamp;
+            synchronized (segment) {
+                stamp = segment.stamp;
+            }
+            PostResponseDTO loaded = loader.apply(id);
+            synchronized (segment) {
+                if (segment.stamp == stamp) {
+                    segment.add(id, loaded, System.currentTimeMillis());
+                }
+            }
+            return loaded;
+        });
+    }
+
+    // Writers drop the cached post rather than storing the one they read back: two writers can read back in
+    // one order and store in the other, leaving the older copy (e.g. a stale like count) cached until it expires.
+    public void invalidate(long postId) {
+        loads.forget(postId);
+        Segment segment = segmentOf(postId);
+        synchronized (segment) {
+            segment.stamp++;
+            segment.remove(postId);
+        }
+    }
+
+    public double hitRatio() {
+        double hitCount = hits.count();
+        double total = hitCount + misses.count();
+        return total == 0 ? 0 : hitCount / total;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.probation.size() + segment.protectedEntries.size();
+            }
+        }
+        return size;
+    }
+
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                bytes += segment.probationBytes + segment.protectedBytes;
+            }
+        }
+        return bytes;
+    }
+
+    private Segment segmentOf(long postId) {
+        return segments[Math.floorMod(Long.hashCode(postId), segmentCount)];
+    }
+
+    // Rough heap footprint of a cached response: the map node, entry, key, DTO and timestamp, plus its strings
+    // counted at two bytes per character (Latin-1 strings take one, so this errs high).
+    static int estimateBytes(PostResponseDTO post) {
+        int bytes = 200 + stringBytes(post.getContent()) + stringBytes(post.getUsername());
+        if (post.getComments() != null) {
+            bytes += 40 + 4 * post.getComments().size();
+            for (CommentResponseDTO comment : post.getComments()) {
+                bytes += 80 + stringBytes(comment.getContent());
+            }
+        }
+        return bytes;
+    }
+
+    private static int stringBytes(String value) {
+        return value == null ? 0 : 40 + 2 * value.length();
+    }
+}
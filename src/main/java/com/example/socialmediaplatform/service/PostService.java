@@ -1,21 +1,30 @@
 package com.example.socialmediaplatform.service;
 
 import com.example.socialmediaplatform.dto.CommentResponseDTO;
+import com.example.socialmediaplatform.dto.PostCursor;
 import com.example.socialmediaplatform.dto.PostRequestDTO;
 import com.example.socialmediaplatform.dto.PostResponseDTO;
 import com.example.socialmediaplatform.model.*;
 import com.example.socialmediaplatform.repository.CommentRepository;
-import com.example.socialmediaplatform.repository.LikeRepository;
 import com.example.socialmediaplatform.repository.PostRepository;
 import com.example.socialmediaplatform.repository.UserRepository;
+import com.example.socialmediaplatform.repository.projection.PostView;
+import com.example.socialmediaplatform.search.PostSearchIndex;
+import com.example.socialmediaplatform.security.CurrentUser;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
@@ -31,70 +40,116 @@ public class PostService {
     private CommentRepository commentRepository;
 
     @Autowired
-    private LikeRepository likeRepository;
+    private TimelineService timelineService;
+
+    @Autowired
+    private PostViewAssembler postViewAssembler;
+
+    @Autowired
+    private LikeIngestionPipeline likeIngestionPipeline;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private PostCache postCache;
+
+    @Value("${app.likes.write-timeout-ms:5000}")
+    private long likeWriteTimeoutMs;
 
     // 1. Create Post
     public PostResponseDTO createPost(PostRequestDTO requestDTO) {
         log.info("PostService - createPost()");
 
         // Get the authenticated user
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+        Long userId = currentUser.getId();
+        String currentUsername = currentUser.getUsername();
         log.info("Current Username: {}",currentUsername);
-        User authenticatedUser = userRepository.findByUsernameOrEmail(currentUsername, currentUsername)
-                .orElseThrow(() -> new RuntimeException("User not found"));
 
+        // The author is attached by reference, so the INSERT is the only statement; the users foreign key
+        // rejects an author deleted since the token was issued.
         Post post = new Post();
         post.setContent(requestDTO.getContent());
-        post.setUser(authenticatedUser);
+        post.setUser(userRepository.getReferenceById(userId));
 
-        Post savedPost = postRepository.save(post);
-        return savedPost.toResponse();
+        Post savedPost;
+        try {
+            savedPost = postRepository.save(post);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("User not found");
+        }
+        timelineService.fanOut(userId, savedPost.getId());
+        return new PostResponseDTO(savedPost.getId(), savedPost.getContent(), savedPost.getTimestamp(), null, 0, currentUsername);
     }
 
     // 2. Get Post by ID
-    @Transactional
+    // Served from the PostCache; a miss reads the post view and its comments instead of the entity graph, and
+    // concurrent misses on the same post share that read.
     public PostResponseDTO getPostById(Long postId) {
         log.info("PostService - getPostById()");
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
-        return post.toResponse();
+        return postCache.get(postId, this::loadPost);
     }
 
     @Transactional
     public List<PostResponseDTO> getAllPosts() {
         log.info("PostService - getAllPosts()");
-        return postRepository.findAll().stream()
-                .map(Post::toResponse).toList();
+        return postViewAssembler.toResponses(postRepository.findAllViews(Pageable.unpaged()).getContent());
     }
 
     public Page<PostResponseDTO> findAll(Pageable pageable){
-        return postRepository.findAll(pageable).map(Post::toResponse);
+        return postViewAssembler.toResponses(postRepository.findAllViews(pageable));
     }
 
     public Page<PostResponseDTO> findByContentContaining(String keyword, Pageable paging){
-        return postRepository.findByContentContaining(keyword,paging).map(Post::toResponse);
+        return search(keyword, paging);
     }
 
-    // 4. Update Post
+    // 3. Keyset pages, newest first. `after` is null for the first page.
+    @Transactional
+    public Slice<PostResponseDTO> findAllAfter(PostCursor after, int size){
+        Pageable paging = PageRequest.of(0, size);
+        Slice<PostView> posts = (after == null)
+                ? postRepository.findFirstSlice(paging)
+                : postRepository.findSliceAfter(after.getTimestamp(), after.getId(), paging);
+        return postViewAssembler.toResponses(posts);
+    }
+
+    // Search results are ordered by post id, newest first, so only the cursor's id is used.
     @Transactional
+    public Slice<PostResponseDTO> searchAfter(String keyword, PostCursor after, int size){
+        log.info("PostService - searchAfter()");
+        long[] ids = postSearchIndex.search(keyword);
+        int from = 0;
+        if (after != null) {
+            while (from < ids.length && ids[from] >= after.getId()) {
+                from++;
+            }
+        }
+        int to = Math.min(from + size, ids.length);
+        List<PostResponseDTO> posts = postViewAssembler.loadInOrder(Arrays.stream(ids, from, to).boxed().toList());
+        return new SliceImpl<>(posts, PageRequest.of(0, size), to < ids.length);
+    }
+
+    // 4. Update Post
+    // A single UPDATE checks ownership; only when it matches nothing does an existence probe tell a missing
+    // post from someone else's. The response is read back from the post view.
     public PostResponseDTO updatePost(Long postId, PostRequestDTO requestDTO) {
         log.info("PostService - updatePost()");
 
         // Get the authenticated user
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
+        Long userId = currentUser.getId();
 
-        // Check if the current user is the post owner
-        if (!post.getUser().getUsername().equals(currentUsername)) {
-            throw new AccessDeniedException("You are not authorized to edit this post.");
+        if (postRepository.updateContentByIdAndUserId(postId, userId, requestDTO.getContent()) == 0) {
+            throw notUpdated(postId, "You are not authorized to edit this post.");
         }
 
-        post.setContent(requestDTO.getContent());
-
-        Post updatedPost = postRepository.save(post);
-        return updatedPost.toResponse();
+        PostResponseDTO updatedPost = loadPost(postId);
+        postSearchIndex.index(postId, updatedPost.getContent(), updatedPost.getCreatedAt(), updatedPost.getLikes());
+        postCache.invalidate(postId);
+        return updatedPost;
     }
 
     // 5. Delete Post
@@ -102,17 +157,21 @@ public class PostService {
         log.info("PostService - deletePost()");
 
         // Get the authenticated user
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+        Long userId = currentUser.getId();
 
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
-
-        // Check if the current user is the post owner
-        if (!post.getUser().getUsername().equals(currentUsername)) {
-            throw new AccessDeniedException("You are not authorized to delete this post.");
+        // comments and likes go with it through ON DELETE CASCADE
+        if (postRepository.deleteByIdAndUserId(postId, userId) == 0) {
+            throw notUpdated(postId, "You are not authorized to delete this post.");
         }
+        postSearchIndex.remove(postId);
+        postCache.invalidate(postId);
+    }
 
-        postRepository.deleteById(postId);
+    private RuntimeException notUpdated(Long postId, String notOwner) {
+        if (!postRepository.existsById(postId)) {
+            return new RuntimeException("Post not found");
+        }
+        return new AccessDeniedException(notOwner);
     }
 
     // 6. Get Posts by User ID
@@ -120,58 +179,99 @@ public class PostService {
     public List<PostResponseDTO> getPostsByUserId(Long userId) {
         log.info("PostService - getPostsByUserId()");
 
-        userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!userRepository.existsByIdAndDeletedAtIsNull(userId)) {
+            throw new RuntimeException("User not found");
+        }
 
-        List<Post> posts = postRepository.findByUserId(userId);
-        return posts.stream()
-                .map(Post::toResponse)
-                .toList();
+        return postViewAssembler.toResponses(postRepository.findViewsByUserId(userId));
     }
 
     // 6. Search
+    // Matches come from the in-memory index (terms, "phrases", OR), most relevant first: BM25 blended with
+    // recency and likes, and only the top offset + size are ranked. The page total is a count of the matches,
+    // not a list of them. An explicit sort in the pageable is applied by the database to the matched ids instead.
     public Page<PostResponseDTO> search(String keyword, Pageable pageable){
         log.info("PostService - search()");
-        return postRepository.findByContentContaining(keyword, pageable).map(Post::toResponse);
+        if (pageable.getSort().isSorted()) {
+            long[] ids = postSearchIndex.search(keyword);
+            if (ids.length == 0) {
+                return Page.empty(pageable);
+            }
+            return postViewAssembler.toResponses(postRepository.findViewPageByIdIn(Arrays.stream(ids).boxed().toList(), pageable));
+        }
+        int total = postSearchIndex.count(keyword);
+        if (total == 0) {
+            return Page.empty(pageable);
+        }
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), total) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), total) : total;
+        long[] ranked = postSearchIndex.searchRanked(keyword, to);
+        to = Math.min(to, ranked.length); // posts deleted between the two reads
+        List<PostResponseDTO> posts = postViewAssembler.loadInOrder(Arrays.stream(ranked, Math.min(from, to), to).boxed().toList());
+        return new PageImpl<>(posts, pageable, total);
     }
 
     //7. Add a Comment To a POst
     public CommentResponseDTO addCommentToPost(Long postId, Comment comment){
 
         // Get the authenticated user
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-        User authenticatedUser = userRepository.findByUsernameOrEmail(currentUsername,currentUsername)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
+        Long userId = currentUser.getId();
 
         log.info("Received comment {}",comment.getContent());
 
-        comment.setUser(authenticatedUser);
-        comment.setPost(post);
-        Comment savedComment = commentRepository.save(comment);
+        // Always a new comment, attached to the post and author by reference: the INSERT is the only statement
+        // and the foreign keys check that both exist. Only a failed insert probes which one is missing.
+        comment.setId(null);
+        comment.setUser(userRepository.getReferenceById(userId));
+        comment.setPost(postRepository.getReferenceById(postId));
+        Comment savedComment;
+        try {
+            savedComment = commentRepository.save(comment);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException(postRepository.existsById(postId) ? "User not found" : "Post not found");
+        }
+        postCache.invalidate(postId);
 
         return savedComment.toResponse();
     }
 
     //8. Like a Post
+    // Likes go through the write-behind pipeline. In SYNC durability the like is committed when this returns,
+    // in ASYNC it is only queued and the returned count may not include it yet.
+    // Like and unlike are idempotent on (post, user) and never load the Post or User entities: the write is an
+    // INSERT IGNORE / DELETE by composite key, and a missing post shows up when the response is read.
     public PostResponseDTO likePost(Long postId){
+        log.info("PostService - likePost()");
+        await(likeIngestionPipeline.like(postId, currentUser.getId()));
+        postCache.invalidate(postId);
+        return loadPost(postId);
+    }
 
-        // Get the authenticated user
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-        User authenticatedUser = userRepository.findByUsernameOrEmail(currentUsername,currentUsername)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
-
-        PostLikeId likeId = new PostLikeId(postId,authenticatedUser.getId());
-        Like like = new Like(likeId, post, authenticatedUser);
-        likeRepository.save(like);
+    //9. Unlike a Post
+    public PostResponseDTO unlikePost(Long postId){
+        log.info("PostService - unlikePost()");
+        await(likeIngestionPipeline.unlike(postId, currentUser.getId()));
+        postCache.invalidate(postId);
+        return loadPost(postId);
+    }
 
-        return postRepository.findById(postId).get().toResponse();
+    private void await(CompletableFuture<Void> written) {
+        if (likeIngestionPipeline.getDurability() != LikeIngestionPipeline.Durability.SYNC) {
+            return;
+        }
+        try {
+            written.get(likeWriteTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while recording like");
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("Like could not be recorded", e);
+        }
     }
 
+    private PostResponseDTO loadPost(Long postId) {
+        return postViewAssembler.loadInOrder(List.of(postId)).stream().findFirst()
+                .orElseThrow(() -> new RuntimeException("Post not found"));
+    }
 
 }
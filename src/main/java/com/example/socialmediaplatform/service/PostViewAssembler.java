@@ -0,0 +1,71 @@
+package com.example.socialmediaplatform.service;
+
+import com.example.socialmediaplatform.dto.CommentResponseDTO;
+import com.example.socialmediaplatform.dto.PostResponseDTO;
+import com.example.socialmediaplatform.repository.CommentRepository;
+import com.example.socialmediaplatform.repository.PostRepository;
+import com.example.socialmediaplatform.repository.projection.CommentView;
+import com.example.socialmediaplatform.repository.projection.PostView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+// Turns PostView rows into PostResponseDTOs with one extra statement per page for the comments,
+// instead of the lazy loads per post that Post.toResponse() triggers. Like counts include LikeCounter deltas.
+@Component
+public class PostViewAssembler {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private LikeCounter likeCounter;
+
+    public List<PostResponseDTO> toResponses(List<PostView> views) {
+        if (views.isEmpty()) {
+            return List.of();
+        }
+        List<Long> postIds = views.stream().map(PostView::getId).toList();
+        Map<Long, List<CommentResponseDTO>> comments = new HashMap<>();
+        for (CommentView comment : commentRepository.findViewsByPostIdIn(postIds)) {
+            comments.computeIfAbsent(comment.getPostId(), id -> new ArrayList<>())
+                    .add(new CommentResponseDTO(comment.getContent(), comment.getCreatedAt()));
+        }
+        return views.stream().map(view -> new PostResponseDTO(
+                view.getId(),
+                view.getContent(),
+                view.getCreatedAt(),
+                comments.get(view.getId()),
+                (int) (view.getLikeCount() + likeCounter.pending(view.getId())),
+                view.getUsername()
+        )).toList();
+    }
+
+    public Page<PostResponseDTO> toResponses(Page<PostView> page) {
+        return new PageImpl<>(toResponses(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    public Slice<PostResponseDTO> toResponses(Slice<PostView> slice) {
+        return new SliceImpl<>(toResponses(slice.getContent()), slice.getPageable(), slice.hasNext());
+    }
+
+    // Posts by id in the order given, skipping ids that no longer exist.
+    public List<PostResponseDTO> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PostView> byId = new HashMap<>();
+        for (PostView view : postRepository.findViewsByIdIn(ids)) {
+            byId.put(view.getId(), view);
+        }
+        return toResponses(ids.stream().map(byId::get).filter(Objects::nonNull).toList());
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.socialmediaplatform.service;
+
+import com.example.socialmediaplatform.dto.SuggestionDTO;
+import com.example.socialmediaplatform.graph.SocialGraphIndex;
+import com.example.socialmediaplatform.repository.UserRepository;
+import com.example.socialmediaplatform.repository.projection.UserNameView;
+import com.example.socialmediaplatform.security.CurrentUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+// Who-to-follow: ranks accounts by the number of second-degree paths to them (accounts followed by the people
+// the user follows), excluding the user and accounts already followed. Paths are counted in parallel over
+// the in-memory follow graph, with one primitive count map per fork-join leaf merged on the way up, and the
+// top K are kept with a bounded min-heap. Results are cached per user for `cache-ttl-ms`.
+@Slf4j
+@Service
+public class SuggestionService {
+
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.suggestions.max-size:50}")
+    private int maxSize;
+
+    @Value("${app.suggestions.cache-ttl-ms:300000}")
+    private long cacheTtlMs;
+
+    @Value("${app.suggestions.cache-max-users:10000}")
+    private int cacheMaxUsers;
+
+    // followees scored sequentially by one fork-join leaf
+    @Value("${app.suggestions.leaf-size:64}")
+    private int leafSize;
+
+    private record CachedSuggestions(List<SuggestionDTO> suggestions, long expiresAt) {
+    }
+
+    private final Map<Long, CachedSuggestions> cache = new ConcurrentHashMap<>();
+
+    private Counter cacheHits;
+    private Counter cacheMisses;
+    private Timer scoringTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        cacheHits = Counter.builder("suggestions.cache").tag("result", "hit").register(meterRegistry);
+        cacheMisses = Counter.builder("suggestions.cache").tag("result", "miss").register(meterRegistry);
+        scoringTimer = Timer.builder("suggestions.scoring")
+                .description("Time spent counting second-degree paths and ranking them")
+                .register(meterRegistry);
+    }
+
+    // 1. Suggestions for the authenticated user, best first
+    public List<SuggestionDTO> getSuggestions(int size) {
+        log.info("SuggestionService - getSuggestions()");
+
+        Long userId = currentUser.getId();
+
+        int limit = Math.max(0, Math.min(size, maxSize));
+        CachedSuggestions cached = cache.get(userId);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            cacheHits.increment();
+            return cached.suggestions().subList(0, Math.min(limit, cached.suggestions().size()));
+        }
+        cacheMisses.increment();
+
+        List<SuggestionDTO> suggestions = compute(userId);
+        if (cache.size() >= cacheMaxUsers) {
+            cache.values().removeIf(entry -> entry.expiresAt() <= System.currentTimeMillis());
+            if (cache.size() >= cacheMaxUsers) {
+                cache.clear();
+            }
+        }
+        cache.put(userId, new CachedSuggestions(suggestions, System.currentTimeMillis() + cacheTtlMs));
+        return suggestions.subList(0, Math.min(limit, suggestions.size()));
+    }
+
+    // 2. Drop the cached suggestions of a user whose follow set changed
+    public void invalidate(Long userId) {
+        cache.remove(userId);
+    }
+
+    private List<SuggestionDTO> compute(long userId) {
+        long[] ranked = scoringTimer.record(() -> rank(userId));
+
+        // ranked holds (id, score) pairs, best first
+        List<Long> ids = new ArrayList<>(ranked.length / 2);
+        for (int i = 0; i < ranked.length; i += 2) {
+            ids.add(ranked[i]);
+        }
+        Map<Long, String> names = userRepository.findNamesByIdIn(ids).stream()
+                .collect(Collectors.toMap(UserNameView::getId, UserNameView::getUsername, (a, b) -> a));
+
+        List<SuggestionDTO> suggestions = new ArrayList<>(ids.size());
+        for (int i = 0; i < ranked.length; i += 2) {
+            String username = names.get(ranked[i]);
+            if (username != null) { // deleted since the graph was read
+                suggestions.add(new SuggestionDTO(ranked[i], username, (int) ranked[i + 1]));
+            }
+        }
+        return List.copyOf(suggestions);
+    }
+
+    private long[] rank(long userId) {
+        long[] following = socialGraphIndex.followingOf(userId);
+        if (following.length == 0) {
+            return new long[0];
+        }
+        LongIntCountMap paths = ForkJoinPool.commonPool().invoke(new PathCount(following, 0, following.length));
+
+        // min-heap on (score, -id) holding the best maxSize candidates
+        PriorityQueue<long[]> top = new PriorityQueue<>(maxSize + 1,
+                Comparator.<long[]>comparingLong(c -> c[1]).thenComparingLong(c -> -c[0]));
+        paths.forEach((candidate, count) -> {
+            if (candidate == userId || Arrays.binarySearch(following, candidate) >= 0) {
+                return;
+            }
+            if (top.size() < maxSize) {
+                top.add(new long[]{candidate, count});
+            } else if (count > top.peek()[1] || (count == top.peek()[1] && candidate < top.peek()[0])) {
+                top.poll();
+                top.add(new long[]{candidate, count});
+            }
+        });
+
+        long[] ranked = new long[top.size() * 2];
+        for (int i = ranked.length - 2; i >= 0; i -= 2) {
+            long[] best = top.poll();
+            ranked[i] = best[0];
+            ranked[i + 1] = best[1];
+        }
+        return ranked;
+    }
+
+    // Counts paths through following[from, to), splitting the range until it is at most leafSize long.
+    private class PathCount extends RecursiveTask<LongIntCountMap> {
+        private final long[] following;
+        private final int from;
+        private final int to;
+
+        private PathCount(long[] following, int from, int to) {
+            this.following = following;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LongIntCountMap compute() {
+            if (to - from <= leafSize) {
+                LongIntCountMap counts = new LongIntCountMap(64);
+                for (int i = from; i < to; i++) {
+                    for (long candidate : socialGraphIndex.followingOf(following[i])) {
+                        counts.increment(candidate, 1);
+                    }
+                }
+                return counts;
+            }
+            int mid = (from + to) >>> 1;
+            PathCount left = new PathCount(following, from, mid);
+            left.fork();
+            LongIntCountMap right = new PathCount(following, mid, to).compute();
+            LongIntCountMap merged = left.join();
+            // fold the smaller map into the larger one
+            if (merged.size() < right.size()) {
+                right.addAll(merged);
+                return right;
+            }
+            merged.addAll(right);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.socialmediaplatform.service;
+
+import java.util.Arrays;
+
+// Bounded home timeline of post ids, kept in ascending order so a page is a binary search plus a
+// backwards walk. When full, the oldest id is dropped.
+class Timeline {
+
+    private final long[] ids;
+    private int size;
+
+    // followed accounts over the fan-out threshold, their posts are pulled at read time instead of pushed
+    private volatile long[] pullAuthors = new long[0];
+    private volatile long pullAuthorsLoadedAt;
+
+    Timeline(int capacity) {
+        this.ids = new long[capacity];
+    }
+
+    synchronized void push(long postId) {
+        int index = Arrays.binarySearch(ids, 0, size, postId);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        if (size == ids.length) {
+            if (insertAt == 0) {
+                return; // older than everything we keep
+            }
+            // drop the oldest entry to make room
+            System.arraycopy(ids, 1, ids, 0, insertAt - 1);
+            ids[insertAt - 1] = postId;
+            return;
+        }
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = postId;
+        size++;
+    }
+
+    synchronized void pushAll(long[] postIds) {
+        for (long postId : postIds) {
+            push(postId);
+        }
+    }
+
+    // Up to `limit` ids strictly older than `afterId` (or the newest ones when afterId is null), newest first.
+    synchronized long[] page(Long afterId, int limit) {
+        int end = size;
+        if (afterId != null) {
+            int index = Arrays.binarySearch(ids, 0, size, afterId);
+            end = index >= 0 ? index : -index - 1;
+        }
+        int count = Math.min(limit, end);
+        long[] page = new long[count];
+        for (int i = 0; i < count; i++) {
+            page[i] = ids[end - 1 - i];
+        }
+        return page;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    long[] getPullAuthors() {
+        return pullAuthors;
+    }
+
+    long getPullAuthorsLoadedAt() {
+        return pullAuthorsLoadedAt;
+    }
+
+    void setPullAuthors(long[] pullAuthors, long loadedAt) {
+        this.pullAuthors = pullAuthors;
+        this.pullAuthorsLoadedAt = loadedAt;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.socialmediaplatform.service;
+
+import com.example.socialmediaplatform.dto.FeedResponseDTO;
+import com.example.socialmediaplatform.dto.PostResponseDTO;
+import com.example.socialmediaplatform.graph.SocialGraphIndex;
+import com.example.socialmediaplatform.repository.PostRepository;
+import com.example.socialmediaplatform.security.CurrentUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Home timelines with hybrid fan-out. Posts of authors with at most `fanout-threshold` followers are pushed
+// into the bounded timeline of every follower whose timeline is materialised (fan-out-on-write). Posts of
+// authors above the threshold are not pushed; readers pull them and k-way merge them into their timeline.
+// Cold timelines are backfilled from the database on first read. Follow edges and follower counts come from
+// the in-memory SocialGraphIndex. An author whose follower count drops back to the threshold is pushed again;
+// its posts from while it was pulled never reached any timeline, so its followers' timelines are dropped.
+@Slf4j
+@Service
+public class TimelineService {
+
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private PostViewAssembler postViewAssembler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.feed.timeline-capacity:800}")
+    private int timelineCapacity;
+
+    @Value("${app.feed.max-timelines:100000}")
+    private int maxTimelines;
+
+    @Value("${app.feed.fanout-threshold:10000}")
+    private long fanoutThreshold;
+
+    @Value("${app.feed.pull-authors-refresh-ms:60000}")
+    private long pullAuthorsRefreshMs;
+
+    @Value("${app.feed.max-page-size:100}")
+    private int maxPageSize;
+
+    private final Map<Long, Timeline> timelines = new ConcurrentHashMap<>();
+
+    private Counter pushedPosts;
+    private Counter pulledPosts;
+    private Counter timelineWrites;
+    private DistributionSummary mergeSources;
+    private DistributionSummary mergeCandidates;
+    private Timer mergeTimer;
+
+    @PostConstruct
+    void init() {
+        socialGraphIndex.onFollowerRemoved(this::followerRemoved);
+        Gauge.builder("feed.fanout.threshold", this, s -> s.fanoutThreshold)
+                .description("Follower count above which an author's posts are pulled instead of pushed")
+                .register(meterRegistry);
+        Gauge.builder("feed.timelines", timelines, Map::size)
+                .description("Materialised home timelines")
+                .register(meterRegistry);
+        pushedPosts = Counter.builder("feed.fanout.posts").tag("mode", "push").register(meterRegistry);
+        pulledPosts = Counter.builder("feed.fanout.posts").tag("mode", "pull").register(meterRegistry);
+        timelineWrites = Counter.builder("feed.fanout.timeline.writes")
+                .description("Post ids pushed into follower timelines")
+                .register(meterRegistry);
+        mergeSources = DistributionSummary.builder("feed.merge.sources")
+                .description("Sorted lists merged per feed read (timeline plus pulled authors)")
+                .register(meterRegistry);
+        mergeCandidates = DistributionSummary.builder("feed.merge.candidates")
+                .description("Post ids considered per feed read")
+                .register(meterRegistry);
+        mergeTimer = Timer.builder("feed.merge")
+                .description("Time spent pulling and merging high-follower authors per feed read")
+                .register(meterRegistry);
+    }
+
+    // 1. Fan out a new post to the author's followers, unless the author has too many of them
+    public void fanOut(Long authorId, Long postId) {
+        long followerCount = socialGraphIndex.followerCount(authorId);
+        if (followerCount > fanoutThreshold) {
+            pulledPosts.increment();
+            log.info("Post {} not fanned out, author {} has {} followers", postId, authorId, followerCount);
+            return;
+        }
+
+        int writes = 0;
+        for (long followerId : socialGraphIndex.followersOf(authorId)) {
+            Timeline timeline = timelines.get(followerId);
+            if (timeline != null) {
+                timeline.push(postId);
+                writes++;
+            }
+        }
+        pushedPosts.increment();
+        timelineWrites.increment(writes);
+        log.info("Fanned out post {} to {} followers", postId, writes);
+    }
+
+    // 2. Drop a timeline whose follow set changed, it is rebuilt on the next read
+    public void invalidate(Long userId) {
+        timelines.remove(userId);
+    }
+
+    // 2.1 An author that just went from pulled to pushed: its followers' timelines are backfilled on their next read
+    private void followerRemoved(long authorId) {
+        if (socialGraphIndex.followerCount(authorId) != fanoutThreshold) {
+            return;
+        }
+        for (long followerId : socialGraphIndex.followersOf(authorId)) {
+            timelines.remove(followerId);
+        }
+    }
+
+    // 3. Home feed of the authenticated user, `size` clamped to [1, max-page-size]
+    public FeedResponseDTO getHomeFeed(Long after, int size) {
+        log.info("TimelineService - getHomeFeed()");
+        size = Math.max(1, Math.min(size, maxPageSize));
+
+        Long userId = currentUser.getId();
+
+        Timeline timeline = timelineOf(userId);
+        long[] pushed = timeline.page(after, size);
+        long[] pullAuthors = pullAuthorsOf(userId, timeline);
+
+        long[] page = pullAuthors.length == 0 ? pushed : mergePulled(pushed, pullAuthors, after, size);
+        // posts deleted since they were pushed are skipped
+        List<PostResponseDTO> posts = postViewAssembler.loadInOrder(Arrays.stream(page).boxed().toList());
+        Long nextCursor = page.length < size ? null : page[page.length - 1];
+        return new FeedResponseDTO(posts, nextCursor);
+    }
+
+    private long[] mergePulled(long[] pushed, long[] pullAuthors, Long after, int size) {
+        return mergeTimer.record(() -> {
+            long beforeId = after == null ? Long.MAX_VALUE : after;
+            long[][] sources = new long[pullAuthors.length + 1][];
+            sources[0] = pushed;
+            int candidates = pushed.length;
+            for (int i = 0; i < pullAuthors.length; i++) {
+                sources[i + 1] = toArray(postRepository.findRecentIdsByUserIdBefore(pullAuthors[i], beforeId, PageRequest.of(0, size)));
+                candidates += sources[i + 1].length;
+            }
+            mergeSources.record(sources.length);
+            mergeCandidates.record(candidates);
+            return FeedMerger.merge(sources, size);
+        });
+    }
+
+    private long[] pullAuthorsOf(Long userId, Timeline timeline) {
+        long now = System.currentTimeMillis();
+        if (now - timeline.getPullAuthorsLoadedAt() > pullAuthorsRefreshMs) {
+            timeline.setPullAuthors(highFollowerFollowing(userId), now);
+        }
+        return timeline.getPullAuthors();
+    }
+
+    private Timeline timelineOf(Long userId) {
+        Timeline timeline = timelines.get(userId);
+        if (timeline != null) {
+            return timeline;
+        }
+        if (timelines.size() >= maxTimelines) {
+            // evict an arbitrary timeline, it is rebuilt from the database if its owner comes back
+            Iterator<Long> it = timelines.keySet().iterator();
+            if (it.hasNext()) {
+                timelines.remove(it.next());
+            }
+        }
+        // published before the backfill query, so posts fanned out meanwhile land in it and merge with the backfill
+        Timeline created = new Timeline(timelineCapacity);
+        Timeline existing = timelines.putIfAbsent(userId, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            backfill(userId, created);
+        } catch (RuntimeException e) {
+            timelines.remove(userId, created);
+            throw e;
+        }
+        return created;
+    }
+
+    private void backfill(Long userId, Timeline timeline) {
+        timeline.setPullAuthors(highFollowerFollowing(userId), System.currentTimeMillis());
+
+        // only pushed authors are backfilled, pulled ones are merged in at read time
+        List<Long> pushedAuthors = new ArrayList<>();
+        for (long followed : socialGraphIndex.followingOf(userId)) {
+            if (socialGraphIndex.followerCount(followed) <= fanoutThreshold) {
+                pushedAuthors.add(followed);
+            }
+        }
+        if (!pushedAuthors.isEmpty()) {
+            List<Long> recent = postRepository.findRecentIdsByUserIdIn(pushedAuthors, PageRequest.of(0, timelineCapacity));
+            timeline.pushAll(toArray(recent));
+        }
+    }
+
+    // Accounts followed by the user whose posts are pulled at read time
+    private long[] highFollowerFollowing(Long userId) {
+        return Arrays.stream(socialGraphIndex.followingOf(userId))
+                .filter(followed -> socialGraphIndex.followerCount(followed) > fanoutThreshold)
+                .toArray();
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
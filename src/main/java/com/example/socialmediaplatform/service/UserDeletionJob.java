@@ -0,0 +1,316 @@
+package com.example.socialmediaplatform.service;
+
+import com.example.socialmediaplatform.dto.UserDeletionDTO;
+import com.example.socialmediaplatform.graph.SocialGraphIndex;
+import com.example.socialmediaplatform.search.PostSearchIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntSupplier;
+
+// Background removal of deleted accounts. UserService marks the user (users.deleted_at) and hides it at once;
+// this job then removes its rows with set-based DELETE ... LIMIT statements, each committed on its own, so no
+// transaction holds locks for long and no row is loaded into memory. The user's posts go first, each chunk
+// after its likes and comments, then the user's own comments, likes and follows, and the users row last.
+//
+// A single worker takes users from a bounded queue and paces itself: the chunk size halves when a statement
+// runs longer than `target-statement-ms`, doubles back up to `chunk-size` when statements are fast, and the
+// worker sleeps `pause-ms` after every statement. Marked users that did not fit in the queue, failed, or were
+// interrupted by a restart are picked up again by a sweep every `sweep-ms`.
+@Slf4j
+@Component
+public class UserDeletionJob {
+
+    public enum Status { PENDING, QUEUED, RUNNING, DONE, FAILED }
+
+    private static final int MIN_CHUNK_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LikeCounter likeCounter;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+
+    @Autowired
+    private PostCache postCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.users.deletion.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.users.deletion.chunk-size:1000}")
+    private int maxChunkSize;
+
+    @Value("${app.users.deletion.posts-per-chunk:100}")
+    private int postsPerChunk;
+
+    @Value("${app.users.deletion.target-statement-ms:100}")
+    private long targetStatementMs;
+
+    @Value("${app.users.deletion.pause-ms:10}")
+    private long pauseMs;
+
+    @Value("${app.users.deletion.max-tracked:10000}")
+    private int maxTracked;
+
+    // Progress of one deletion, written by the worker only.
+    private static class Progress {
+        private final long userId;
+        private volatile Status status;
+        private volatile long posts;
+        private volatile long comments;
+        private volatile long likes;
+        private volatile long follows;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Progress(long userId, Status status) {
+            this.userId = userId;
+            this.status = status;
+        }
+
+        private UserDeletionDTO toDTO() {
+            return new UserDeletionDTO(userId, status.name(), posts, comments, likes, follows);
+        }
+    }
+
+    private final Map<Long, Progress> jobs = new ConcurrentHashMap<>();
+    private BlockingQueue<Long> queue;
+    private Thread worker;
+    private volatile boolean running;
+    private int chunkSize;
+
+    private Counter deletedRows;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        chunkSize = maxChunkSize;
+        Gauge.builder("users.deletion.queue.depth", queue, Collection::size).register(meterRegistry);
+        deletedRows = Counter.builder("users.deletion.rows")
+                .description("Rows removed on behalf of deleted users")
+                .register(meterRegistry);
+
+        running = true;
+        worker = new Thread(this::run, "user-deleter");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Queues the removal of a user already marked deleted, unless it is queued or running. When the queue is
+    // full the user stays PENDING until the sweep finds room.
+    public synchronized UserDeletionDTO submit(long userId) {
+        Progress progress = jobs.get(userId);
+        if (progress != null && (progress.status == Status.QUEUED || progress.status == Status.RUNNING)) {
+            return progress.toDTO();
+        }
+        if (jobs.size() >= maxTracked) {
+            jobs.values().removeIf(job -> job.status == Status.DONE);
+        }
+        progress = new Progress(userId, Status.QUEUED);
+        jobs.put(userId, progress);
+        if (!queue.offer(userId)) {
+            progress.status = Status.PENDING;
+        }
+        return progress.toDTO();
+    }
+
+    // Progress of a user's deletion; a marked user not picked up since a restart is PENDING.
+    public UserDeletionDTO progress(long userId) {
+        Progress progress = jobs.get(userId);
+        if (progress != null) {
+            return progress.toDTO();
+        }
+        List<Boolean> marked = jdbcTemplate.queryForList("SELECT deleted_at IS NOT NULL FROM users WHERE id = ?", Boolean.class, userId);
+        if (marked.isEmpty()) {
+            throw new RuntimeException("User not found");
+        }
+        if (!marked.get(0)) {
+            throw new RuntimeException("User is not being deleted");
+        }
+        return new Progress(userId, Status.PENDING).toDTO();
+    }
+
+    // Waits until the user's rows are gone; false on timeout or when the deletion is not tracked.
+    public boolean await(long userId, long timeoutMs) {
+        Progress progress = jobs.get(userId);
+        if (progress == null) {
+            return false;
+        }
+        try {
+            progress.done.get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Runs after the social graph is rebuilt, which still holds the follows of users deleted before a restart.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.users.deletion.sweep-ms:60000}", initialDelayString = "${app.users.deletion.sweep-ms:60000}")
+    public void sweep() {
+        for (Long userId : jdbcTemplate.queryForList("SELECT id FROM users WHERE deleted_at IS NOT NULL", Long.class)) {
+            Progress progress = jobs.get(userId);
+            if (progress == null || progress.status == Status.PENDING || progress.status == Status.FAILED) {
+                socialGraphIndex.removeUser(userId);
+                submit(userId);
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            Long userId;
+            try {
+                userId = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (userId == null) {
+                continue;
+            }
+            Progress progress = jobs.get(userId);
+            progress.status = Status.RUNNING;
+            long start = System.currentTimeMillis();
+            try {
+                delete(progress);
+                progress.status = Status.DONE;
+                progress.done.complete(null);
+                log.info("User {} deleted in {} ms: {} posts, {} comments, {} likes, {} follows", userId,
+                        System.currentTimeMillis() - start, progress.posts, progress.comments, progress.likes, progress.follows);
+            } catch (InterruptedException e) {
+                // picked up again by the sweep after a restart
+                progress.status = Status.PENDING;
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Deleting user {} failed, the sweep retries it", userId, e);
+                progress.status = Status.FAILED;
+            }
+        }
+    }
+
+    private void delete(Progress progress) throws InterruptedException {
+        long userId = progress.userId;
+
+        List<Long> postIds;
+        while (!(postIds = jdbcTemplate.queryForList("SELECT id FROM posts WHERE user_id = ? ORDER BY id LIMIT ?",
+                Long.class, userId, postsPerChunk)).isEmpty()) {
+            String in = String.join(", ", Collections.nCopies(postIds.size(), "?"));
+            Object[] ids = postIds.toArray();
+            progress.likes += drain("DELETE FROM post_likes WHERE post_id IN (" + in + ") LIMIT ?", ids);
+            progress.comments += drain("DELETE FROM comments WHERE post_id IN (" + in + ") LIMIT ?", ids);
+            progress.posts += timed(() -> jdbcTemplate.update("DELETE FROM posts WHERE id IN (" + in + ")", ids));
+            postIds.forEach(postSearchIndex::remove);
+            postIds.forEach(postCache::invalidate);
+        }
+
+        progress.comments += drain("DELETE FROM comments WHERE user_id = ? LIMIT ?", userId);
+        int removed;
+        do {
+            int limit = chunkSize;
+            removed = timed(() -> deleteLikes(userId, limit));
+            progress.likes += removed;
+        } while (removed > 0);
+        progress.follows += drain("DELETE FROM follows WHERE follower_id = ? LIMIT ?", userId);
+        progress.follows += drain("DELETE FROM follows WHERE following_id = ? LIMIT ?", userId);
+
+        // rows written since, e.g. with a token issued before the deletion, go with it through ON DELETE CASCADE
+        timed(() -> jdbcTemplate.update("DELETE FROM users WHERE id = ? AND deleted_at IS NOT NULL", userId));
+    }
+
+    // Repeats a DELETE ... LIMIT ? (the limit is appended to the arguments) until it removes less than a chunk.
+    private long drain(String sql, Object... args) throws InterruptedException {
+        Object[] withLimit = Arrays.copyOf(args, args.length + 1);
+        long total = 0;
+        int removed;
+        int limit;
+        do {
+            limit = chunkSize;
+            withLimit[args.length] = limit;
+            removed = timed(() -> jdbcTemplate.update(sql, withLimit));
+            total += removed;
+        } while (removed >= limit);
+        return total;
+    }
+
+    // Likes given by the user are locked, deleted and taken off the like counters of the posts they were on.
+    private int deleteLikes(long userId, int limit) {
+        List<Long> postIds = transactionTemplate.execute(status -> {
+            List<Long> liked = jdbcTemplate.queryForList("SELECT post_id FROM post_likes WHERE user_id = ? LIMIT ? FOR UPDATE",
+                    Long.class, userId, limit);
+            if (!liked.isEmpty()) {
+                Object[] args = new Object[liked.size() + 1];
+                args[0] = userId;
+                for (int i = 0; i < liked.size(); i++) {
+                    args[i + 1] = liked.get(i);
+                }
+                jdbcTemplate.update("DELETE FROM post_likes WHERE user_id = ? AND post_id IN ("
+                        + String.join(", ", Collections.nCopies(liked.size(), "?")) + ")", args);
+            }
+            return liked;
+        });
+        for (Long postId : postIds) {
+            likeCounter.add(postId, -1);
+            postSearchIndex.addLikes(postId, -1);
+            postCache.invalidate(postId);
+        }
+        return postIds.size();
+    }
+
+    // Runs one statement, adapts the chunk size to how long it took and pauses before the next one.
+    private int timed(IntSupplier statement) throws InterruptedException {
+        long start = System.nanoTime();
+        int rows = statement.getAsInt();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (elapsedMs > targetStatementMs) {
+            chunkSize = Math.max(MIN_CHUNK_SIZE, chunkSize / 2);
+        } else if (elapsedMs < targetStatementMs / 4) {
+            chunkSize = Math.min(maxChunkSize, chunkSize * 2);
+        }
+        deletedRows.increment(rows);
+        Thread.sleep(pauseMs);
+        return rows;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
@@ -1,17 +1,32 @@
 package com.example.socialmediaplatform.service;
 
 import com.example.socialmediaplatform.dto.*;
+import com.example.socialmediaplatform.graph.SocialGraphIndex;
 import com.example.socialmediaplatform.model.Follow;
 import com.example.socialmediaplatform.model.User;
+import com.example.socialmediaplatform.repository.CommentRepository;
 import com.example.socialmediaplatform.repository.FollowRepository;
+import com.example.socialmediaplatform.repository.PostRepository;
 import com.example.socialmediaplatform.repository.UserRepository;
+import com.example.socialmediaplatform.repository.projection.FollowEdgeView;
+import com.example.socialmediaplatform.repository.projection.UserProfileView;
+import com.example.socialmediaplatform.search.PostSearchIndex;
+import com.example.socialmediaplatform.search.UserTypeaheadIndex;
+import com.example.socialmediaplatform.security.CurrentUser;
+import com.example.socialmediaplatform.security.CustomUserDetailsService;
 import com.example.socialmediaplatform.security.JwtTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -30,6 +45,12 @@ public class UserService {
     @Autowired
     private FollowRepository followRepository;
 
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
     @Autowired
     private AuthenticationManager authenticationManager;
 
@@ -39,6 +60,53 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private UserTypeaheadIndex userTypeaheadIndex;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private PostCache postCache;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private UserDeletionJob userDeletionJob;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.typeahead.max-size:20}")
+    private int typeaheadMaxSize;
+
+    @Value("${app.typeahead.fuzzy-max-distance:2}")
+    private int fuzzyMaxDistance;
+
+    @Value("${app.follows.max-page-size:200}")
+    private int followsMaxPageSize;
+
+    // concurrent reads of the same profile share one query
+    private SingleFlight<Long, UserResponseDTO> userLoads;
+
+    @PostConstruct
+    void registerMetrics() {
+        userLoads = new SingleFlight<>("users", meterRegistry);
+    }
+
     // 0. Login User
     public String login(LoginDto loginDto) {
         log.info("UserService - login");
@@ -60,32 +128,54 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(requestDTO.getPassword()));
         user.setRole(requestDTO.getRole());
         User savedUser = userRepository.save(user);
+        userTypeaheadIndex.put(savedUser.getId(), savedUser.getUsername(), savedUser.getEmail());
         return savedUser.toResponse();
     }
 
     // 2. Get User by ID
     public UserResponseDTO getUserById(Long userId) {
         log.info("UserService - getUserById()");
-        User user = userRepository.findById(userId)
+        return userLoads.load(userId, id -> {
+            User user = userRepository.findById(id)
+                    .filter(found -> !found.isDeleted())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            return user.toResponse();
+        });
+    }
+
+    // 2.1 Profile summary: counts instead of the full object graph
+    public UserSummaryDTO getUserSummary(Long userId) {
+        log.info("UserService - getUserSummary()");
+        UserProfileView profile = userRepository.findProfileById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.toResponse();
+        return new UserSummaryDTO(
+                profile.getId(),
+                profile.getUsername(),
+                profile.getEmail(),
+                profile.getBio(),
+                profile.getPostCount(),
+                profile.getFollowerCount(),
+                profile.getFollowingCount(),
+                profile.getLikeCount()
+        );
     }
 
     // 3. Get All Users
     @Transactional
     public List<UserResponseDTO> getAllUsers() {
         log.info("UserService - getAllUsers()");
-        return userRepository.findAll().stream().map(User::toResponse).toList();
+        return userRepository.findAll().stream().filter(user -> !user.isDeleted()).map(User::toResponse).toList();
     }
 
     public Page<User> findAll(Pageable pageable){
-        return userRepository.findAll(pageable);
+        return userRepository.findByDeletedAtIsNull(pageable);
     }
 
     // 4. Update User
     public UserResponseDTO updateUser(Long userId, UserRequestDTO requestDTO) {
         log.info("UserService - updateUser()");
         User user = userRepository.findById(userId)
+                .filter(found -> !found.isDeleted())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         user.setUsername(requestDTO.getUsername());
@@ -93,16 +183,39 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(requestDTO.getPassword())); // Hashing recommended
 
         User updatedUser = userRepository.save(user);
+        userLoads.forget(userId);
+        customUserDetailsService.invalidate(userId);
+        userTypeaheadIndex.put(updatedUser.getId(), updatedUser.getUsername(), updatedUser.getEmail());
         return updatedUser.toResponse();
     }
 
     // 5. Delete User
-    public void deleteUser(Long userId) {
+    // The user is marked deleted and drops out of login, lookups and the in-memory indexes at once; its posts
+    // leave search and the post cache, as do cached posts showing its comments. Its rows are removed in the
+    // background by UserDeletionJob; the returned progress is also served by deletionProgress.
+    public UserDeletionDTO deleteUser(Long userId) {
         log.info("UserService - deleteUser()");
-        if (!userRepository.existsById(userId)) {
-            throw new RuntimeException("User not found");
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!user.isDeleted()) {
+            userRepository.markDeleted(userId);
         }
-        userRepository.deleteById(userId);
+        socialGraphIndex.removeUser(userId);
+        userLoads.forget(userId);
+        customUserDetailsService.invalidate(userId);
+        userTypeaheadIndex.remove(userId);
+        for (Long postId : postRepository.findIdsByUserId(userId)) {
+            postSearchIndex.remove(postId);
+            postCache.invalidate(postId);
+        }
+        commentRepository.findPostIdsByUserId(userId).forEach(postCache::invalidate);
+        return userDeletionJob.submit(userId);
+    }
+
+    // 5.1 Progress of a user's deletion
+    public UserDeletionDTO deletionProgress(Long userId) {
+        log.info("UserService - deletionProgress()");
+        return userDeletionJob.progress(userId);
     }
 
     // 6. Search
@@ -110,23 +223,60 @@ public class UserService {
         log.info("UserService - search()");
         log.info("Keyword - {}",keyword);
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "username"));
-        return userRepository.findByUsernameContainingOrEmailContainingOrBioContaining(keyword,keyword,keyword,pageable);
+        return userRepository.searchByKeyword(keyword, pageable);
+    }
+
+    // 6.1 Typeahead: users whose username or email starts with the query, most followed first
+    public List<UserTypeaheadDTO> typeahead(String query, int size) {
+        log.info("UserService - typeahead()");
+        return userTypeaheadIndex.lookup(query, Math.max(0, Math.min(size, typeaheadMaxSize))).stream()
+                .map(match -> new UserTypeaheadDTO(match.id(), match.username(), match.followers()))
+                .toList();
+    }
+
+    // 6.2 Fuzzy: usernames within a couple of typos of the query, closest first, then most followed.
+    // Short queries allow a single edit, otherwise nearly every short username would match.
+    public List<FuzzyUserDTO> fuzzySearch(String query, int size) {
+        log.info("UserService - fuzzySearch()");
+        int maxDistance = (query == null || query.strip().length() <= 4) ? Math.min(1, fuzzyMaxDistance) : fuzzyMaxDistance;
+        return userTypeaheadIndex.fuzzy(query, maxDistance, Math.max(0, Math.min(size, typeaheadMaxSize))).stream()
+                .map(match -> new FuzzyUserDTO(match.id(), match.username(), match.followers(), match.distance()))
+                .toList();
     }
 
     //7. Follow User
     public FollowingResponseDTO followUser(Long targetUserId){
 
         // Get the authenticated user
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-        User authenticatedUser = userRepository.findByUsernameOrEmail(currentUsername,currentUsername)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        Long userId = currentUser.getId();
+
+        if (socialGraphIndex.isFollowing(userId, targetUserId)) {
+            throw new RuntimeException("Already following");
+        }
 
+        // The target is read for the response; the follower is attached by reference and checked by its
+        // foreign key, so the INSERT is the only other statement.
         User targetUser = userRepository.findById(targetUserId)
+                .filter(found -> !found.isDeleted())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Follow follow = new Follow(null, authenticatedUser, targetUser);
+        Follow follow = new Follow(null, userRepository.getReferenceById(userId), targetUser);
+        FollowingResponseDTO response;
+        try {
+            response = followRepository.save(follow).FollowingToResponse();
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("Already following");
+        } catch (DataIntegrityViolationException e) {
+            if (userId.equals(targetUserId)) {
+                throw e;
+            }
+            throw new RuntimeException("User not found");
+        }
 
-        return followRepository.save(follow).FollowingToResponse();
+        // the follower's home timeline no longer matches its follow set
+        timelineService.invalidate(userId);
+        suggestionService.invalidate(userId);
+        return response;
     }
 
     //8. Get Followers
@@ -134,19 +284,60 @@ public class UserService {
     public List<FollowerResponseDTO> getFollowers(Long id){
 
         User foundUser = userRepository.findById(id)
+                .filter(user -> !user.isDeleted())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return foundUser.getFollowers().stream().map(Follow::FollowerToResponse).toList();
+        return foundUser.getFollowers().stream()
+                .filter(follow -> !follow.getFollower().isDeleted())
+                .map(Follow::FollowerToResponse).toList();
     }
 
     //9. Get Following
     public List<FollowingResponseDTO> getFollowing(Long id){
 
         User foundUser = userRepository.findById(id)
+                .filter(user -> !user.isDeleted())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return foundUser.getFollowing().stream().map(Follow::FollowingToResponse).toList();
+        return foundUser.getFollowing().stream()
+                .filter(follow -> !follow.getFollowing().isDeleted())
+                .map(Follow::FollowingToResponse).toList();
+
+    }
+
+    //10. Paged followers / following, ordered by follow id. `after` is the previous page's nextCursor, null for the first page.
+    // `size` is clamped to [1, max-page-size].
+    public CursorPageDTO<FollowerResponseDTO> getFollowersPage(Long id, Long after, int size){
+        log.info("UserService - getFollowersPage()");
+        if (!userRepository.existsByIdAndDeletedAtIsNull(id)) {
+            throw new RuntimeException("User not found");
+        }
+        Slice<FollowEdgeView> edges = followRepository.findFollowerViews(id, after == null ? 0L : after, followPage(size));
+        return new CursorPageDTO<>(
+                edges.getContent().stream().map(edge -> new FollowerResponseDTO(edge.getUsername(), edge.getEmail())).toList(),
+                nextCursor(edges)
+        );
+    }
+
+    public CursorPageDTO<FollowingResponseDTO> getFollowingPage(Long id, Long after, int size){
+        log.info("UserService - getFollowingPage()");
+        if (!userRepository.existsByIdAndDeletedAtIsNull(id)) {
+            throw new RuntimeException("User not found");
+        }
+        Slice<FollowEdgeView> edges = followRepository.findFollowingViews(id, after == null ? 0L : after, followPage(size));
+        return new CursorPageDTO<>(
+                edges.getContent().stream().map(edge -> new FollowingResponseDTO(edge.getUsername(), edge.getEmail())).toList(),
+                nextCursor(edges)
+        );
+    }
+
+    private Pageable followPage(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, followsMaxPageSize)));
+    }
 
+    private static Long nextCursor(Slice<FollowEdgeView> edges) {
+        List<FollowEdgeView> content = edges.getContent();
+        return (edges.hasNext() && !content.isEmpty()) ? content.get(content.size() - 1).getFollowId() : null;
     }
 
 }
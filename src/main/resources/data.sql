@@ -34,3 +34,6 @@ INSERT INTO post_likes (post_id, user_id) VALUES
 (2, 1), -- Alice likes Bob's post
 (3, 4), -- Dave likes Carol's post
 (4, 5); -- Eve likes Alice's second post
+
+-- Denormalised like counts for the seeded likes.
+UPDATE posts p SET like_count = (SELECT COUNT(*) FROM post_likes l WHERE l.post_id = p.id);
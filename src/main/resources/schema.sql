@@ -9,7 +9,8 @@ CREATE TABLE users(
                       password VARCHAR(100) NOT NULL,
                       profile_picture VARCHAR(100),
                       bio TEXT,
-                      role VARCHAR(100) NOT NULL
+                      role VARCHAR(100) NOT NULL,
+                      deleted_at TIMESTAMP NULL DEFAULT NULL -- set on deletion, the row goes once UserDeletionJob has removed its rows
 );
 
 -- A Post has one user.
@@ -19,9 +20,14 @@ CREATE TABLE posts(
                       user_id BIGINT NOT NULL,
                       content TEXT NOT NULL,
                       timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                      like_count BIGINT NOT NULL DEFAULT 0, -- maintained by the application, see LikeCounter
                       FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Keyset pagination of posts (newest first) and per-author post lookups.
+CREATE INDEX idx_posts_timestamp_id ON posts(timestamp, id);
+CREATE INDEX idx_posts_user_id_id ON posts(user_id, id);
+
 -- A post has multiple comments.
 
 CREATE TABLE comments(
@@ -46,6 +52,10 @@ CREATE TABLE follows(
                         CHECK (follower_id <> following_id) -- Prevent self-following
 );
 
+-- Keyset pages of followings by follow id. Follower pages use the foreign key index on following_id,
+-- which InnoDB already orders by (following_id, id).
+CREATE INDEX idx_follows_follower_id_id ON follows(follower_id, id);
+
 -- A user can like a post.
 -- A post can have multiple likes.
 CREATE TABLE post_likes(
@@ -54,4 +64,21 @@ CREATE TABLE post_likes(
                            FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
                            FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
                            PRIMARY KEY (post_id,user_id)
+);
+
+-- Bulk imports (ImportService). A batch of rows commits together with its import_batches row, so a resumed
+-- import skips the batches already written.
+CREATE TABLE import_jobs(
+                            id VARCHAR(100) PRIMARY KEY,
+                            kind VARCHAR(20) NOT NULL,
+                            batch_size INT NOT NULL,
+                            rows_imported BIGINT NOT NULL DEFAULT 0,
+                            completed_at TIMESTAMP NULL DEFAULT NULL
+);
+
+CREATE TABLE import_batches(
+                               import_id VARCHAR(100) NOT NULL,
+                               batch_no BIGINT NOT NULL,
+                               PRIMARY KEY (import_id, batch_no),
+                               FOREIGN KEY (import_id) REFERENCES import_jobs(id) ON DELETE CASCADE
 );
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.example.socialmediaplatform.repository.UserRepository;
 import com.example.socialmediaplatform.security.SecurityConfig;
 import com.example.socialmediaplatform.service.UserService;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +22,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
 import java.util.List;
+import java.util.UUID;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -165,6 +167,64 @@ class UserControllerTest {
         Assertions.assertEquals("Zayyan",userResponses.get(1).getUsername());
     }
 
+    @Test
+    public void exportUsersTest() throws Exception{
+        registerUser();
+        loginUser();
+
+        accessToken = "Bearer " + accessToken;
+
+        ResultActions response = mockMvc.perform(get("/users/export")
+                        .header(HttpHeaders.AUTHORIZATION, accessToken))
+                .andExpect(status().isOk());
+
+        //one JSON object per line, in id order, without passwords
+        String[] lines = response.andReturn().getResponse().getContentAsString().split("\n");
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertEquals("Zeerak", objectMapper.readTree(lines[0]).get("username").asText());
+        Assertions.assertEquals("zayyan@gmail.com", objectMapper.readTree(lines[1]).get("email").asText());
+        Assertions.assertFalse(objectMapper.readTree(lines[0]).has("password"));
+    }
+
+    @Test
+    public void importUsersTest() throws Exception{
+        registerUser();
+        loginUser();
+
+        accessToken = "Bearer " + accessToken;
+        String importId = UUID.randomUUID().toString();
+        String csv = "username,email,password,bio\n" +
+                "Zubair,zubair@gmail.com,Zubair,\"Likes racing, and cars\"\n" +
+                "Zeerak,zeerak@gmail.com,Zeerak,\n" +
+                ",missing@gmail.com,Missing,\n";
+
+        ResultActions response = mockMvc.perform(post("/users/import").param("importId", importId)
+                        .header(HttpHeaders.AUTHORIZATION, accessToken)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk());
+
+        //the existing username is ignored and the row without one rejected
+        JsonNode result = objectMapper.readTree(response.andReturn().getResponse().getContentAsString());
+        Assertions.assertEquals(3, result.get("rowsRead").asLong());
+        Assertions.assertEquals(1, result.get("rowsImported").asLong());
+        Assertions.assertEquals(1, result.get("rowsSkipped").asLong());
+        Assertions.assertEquals(1, result.get("rowsRejected").asLong());
+        User imported = userRepository.findByUsernameOrEmail("Zubair", "Zubair").orElseThrow();
+        Assertions.assertEquals("Likes racing, and cars", imported.getBio());
+        Assertions.assertTrue(passwordEncoder.matches("Zubair", imported.getPassword()));
+
+        //resuming the same import skips the batches already written
+        response = mockMvc.perform(post("/users/import").param("importId", importId)
+                        .header(HttpHeaders.AUTHORIZATION, accessToken)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk());
+        result = objectMapper.readTree(response.andReturn().getResponse().getContentAsString());
+        Assertions.assertEquals(0, result.get("rowsImported").asLong());
+        Assertions.assertEquals(3, result.get("rowsSkipped").asLong());
+    }
+
     @Test
     public void updateUserTest() throws Exception{
         registerUser();
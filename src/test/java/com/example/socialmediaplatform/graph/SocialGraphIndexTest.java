@@ -0,0 +1,83 @@
+package com.example.socialmediaplatform.graph;
+
+import com.example.socialmediaplatform.model.Follow;
+import com.example.socialmediaplatform.model.User;
+import com.example.socialmediaplatform.repository.FollowRepository;
+import com.example.socialmediaplatform.repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest
+class SocialGraphIndexTest {
+
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        users.clear();
+        for (int i = 0; i < 4; i++) {
+            users.add(userRepository.save(new User(null,"user" + i,"user" + i + "@gmail.com","password","img.jpg","bio",null,null,null,null,null,"USER")));
+        }
+    }
+
+    @Test
+    void testFollowsAreMirroredAndRebuilt() {
+        User a = users.get(0), b = users.get(1), c = users.get(2);
+        followRepository.save(new Follow(null, a, b));
+        followRepository.save(new Follow(null, c, b));
+        Follow ab = followRepository.save(new Follow(null, b, a));
+
+        Assertions.assertTrue(socialGraphIndex.isFollowing(a.getId(), b.getId()));
+        Assertions.assertFalse(socialGraphIndex.isFollowing(b.getId(), c.getId()));
+        Assertions.assertEquals(2, socialGraphIndex.followerCount(b.getId()));
+        Assertions.assertEquals(1, socialGraphIndex.followingCount(b.getId()));
+        Assertions.assertArrayEquals(new long[]{a.getId(), c.getId()}, socialGraphIndex.followersOf(b.getId()));
+
+        //Removals are mirrored too
+        followRepository.delete(ab);
+        Assertions.assertFalse(socialGraphIndex.isFollowing(b.getId(), a.getId()));
+
+        //A rebuild from the table gives the same answers
+        socialGraphIndex.rebuild();
+        Assertions.assertTrue(socialGraphIndex.isFollowing(a.getId(), b.getId()));
+        Assertions.assertFalse(socialGraphIndex.isFollowing(b.getId(), a.getId()));
+        Assertions.assertEquals(2, socialGraphIndex.followerCount(b.getId()));
+    }
+
+    @Test
+    void testCompactionKeepsRows() {
+        //compacts after every second changed row
+        Adjacency adjacency = new Adjacency(2);
+        adjacency.reset(Adjacency.Csr.of(new long[]{1, 1, 2}, new long[]{20, 10, 30}, 3));
+        Assertions.assertArrayEquals(new long[]{10, 20}, adjacency.neighbours(1));
+
+        Assertions.assertTrue(adjacency.add(1, 15));
+        Assertions.assertFalse(adjacency.add(1, 15));
+        Assertions.assertTrue(adjacency.remove(2, 30));
+        Assertions.assertTrue(adjacency.add(5, 50));
+        Assertions.assertTrue(adjacency.add(0, 1));
+
+        Assertions.assertArrayEquals(new long[]{1}, adjacency.neighbours(0));
+        Assertions.assertArrayEquals(new long[]{10, 15, 20}, adjacency.neighbours(1));
+        Assertions.assertEquals(0, adjacency.degree(2));
+        Assertions.assertTrue(adjacency.contains(5, 50));
+        Assertions.assertFalse(adjacency.contains(5, 51));
+        Assertions.assertEquals(5, adjacency.edgeCount());
+    }
+}
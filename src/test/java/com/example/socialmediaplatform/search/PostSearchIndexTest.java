@@ -0,0 +1,144 @@
+package com.example.socialmediaplatform.search;
+
+import com.example.socialmediaplatform.model.Post;
+import com.example.socialmediaplatform.model.User;
+import com.example.socialmediaplatform.repository.PostRepository;
+import com.example.socialmediaplatform.repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Random;
+
+@SpringBootTest
+class PostSearchIndexTest {
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Post climbing;
+    private Post chess;
+    private Post both;
+
+    @BeforeEach
+    void setUp() {
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com","password","img.jpg","bio",null,null,null,null,null,"USER"));
+        climbing = postRepository.save(new Post(null,user,"Rock climbing this weekend!",null,null,null));
+        chess = postRepository.save(new Post(null,user,"Chess club, then some rock music",null,null,null));
+        both = postRepository.save(new Post(null,user,"Climbing rock walls and playing CHESS",null,null,null));
+    }
+
+    @Test
+    void testBooleanAndPhraseQueries() {
+        //terms are case-insensitive and all must match; results are newest first
+        Assertions.assertArrayEquals(new long[]{both.getId(), climbing.getId()}, postSearchIndex.search("ROCK climbing"));
+        Assertions.assertArrayEquals(new long[]{both.getId(), chess.getId()}, postSearchIndex.search("chess"));
+
+        //alternatives
+        Assertions.assertArrayEquals(new long[]{both.getId(), chess.getId(), climbing.getId()}, postSearchIndex.search("weekend OR chess"));
+
+        //phrases need consecutive positions
+        Assertions.assertArrayEquals(new long[]{climbing.getId()}, postSearchIndex.search("\"rock climbing\""));
+        Assertions.assertArrayEquals(new long[]{both.getId()}, postSearchIndex.search("\"climbing rock\" chess"));
+        Assertions.assertArrayEquals(new long[0], postSearchIndex.search("\"chess rock\""));
+        Assertions.assertArrayEquals(new long[0], postSearchIndex.search("!!"));
+
+        //counts agree with the matches
+        Assertions.assertEquals(2, postSearchIndex.count("chess"));
+        Assertions.assertEquals(3, postSearchIndex.count("weekend OR chess"));
+        Assertions.assertEquals(1, postSearchIndex.count("\"rock climbing\""));
+        Assertions.assertEquals(0, postSearchIndex.count("!!"));
+    }
+
+    @Test
+    void testEditsAndDeletesAreApplied() {
+        climbing.setContent("Bouldering this weekend!");
+        postRepository.save(climbing);
+        Assertions.assertArrayEquals(new long[]{both.getId()}, postSearchIndex.search("climbing"));
+        Assertions.assertArrayEquals(new long[]{climbing.getId()}, postSearchIndex.search("bouldering"));
+
+        postRepository.deleteById(both.getId());
+        Assertions.assertArrayEquals(new long[0], postSearchIndex.search("climbing"));
+        Assertions.assertArrayEquals(new long[]{chess.getId()}, postSearchIndex.search("chess"));
+
+        //a rebuild from the table gives the same answers
+        postSearchIndex.rebuild();
+        Assertions.assertArrayEquals(new long[]{climbing.getId()}, postSearchIndex.search("bouldering"));
+        Assertions.assertArrayEquals(new long[]{chess.getId()}, postSearchIndex.search("chess"));
+    }
+
+    @Test
+    void testRankedSearchOrdersByRelevance() {
+        //"rock" twice in a short post beats one mention; posts without the term are not returned
+        Post rocks = postRepository.save(new Post(null,climbing.getUser(),"Rock rock",null,null,null));
+        Assertions.assertEquals(rocks.getId(), postSearchIndex.searchRanked("rock", 10)[0]);
+        Assertions.assertEquals(4, postSearchIndex.searchRanked("rock", 10).length);
+        Assertions.assertEquals(2, postSearchIndex.searchRanked("rock", 2).length);
+
+        //a match on the rarer term outranks a match on the common one
+        Assertions.assertEquals(climbing.getId(), postSearchIndex.searchRanked("weekend OR rock", 10)[0]);
+
+        //the boolean filter still applies
+        Assertions.assertArrayEquals(new long[]{climbing.getId()}, postSearchIndex.searchRanked("\"rock climbing\"", 10));
+    }
+
+    @Test
+    void testCompactionRenumbersDocuments() {
+        InvertedIndex index = new InvertedIndex(0.25);
+        //the same ten posts edited over and over
+        for (int round = 0; round < 1000; round++) {
+            for (long id = 1; id <= 10; id++) {
+                index.add(id, (id % 2 == 0 ? "rock " : "chess ") + "round" + round, round, id);
+            }
+        }
+        Assertions.assertEquals(10, index.size());
+        Assertions.assertTrue(index.docSlots() < 2000, "document numbers follow live posts, not edits");
+        Assertions.assertEquals(5, index.count(SearchQuery.parse("rock")));
+        Assertions.assertEquals(10, index.count(SearchQuery.parse("round999")));
+        Assertions.assertEquals(0, index.count(SearchQuery.parse("round998")));
+
+        //order survives renumbering: matches stay newest first and ranking agrees with exhaustive scoring
+        Assertions.assertArrayEquals(new long[]{10, 8, 6, 4, 2}, index.match(SearchQuery.parse("rock")));
+        Ranking ranking = new Ranking(1.2, 0.75, 1.0, 72, 1.0, 50);
+        Assertions.assertArrayEquals(index.rankExhaustive(SearchQuery.parse("rock OR chess"), 5, ranking, 1000).scores(),
+                index.rank(SearchQuery.parse("rock OR chess"), 5, ranking, 1000).scores(), 1e-9);
+    }
+
+    @Test
+    void testTopKMatchesExhaustiveScoring() {
+        Random random = new Random(42);
+        InvertedIndex index = new InvertedIndex(0.25);
+        String[] words = {"rock", "chess", "climbing", "music", "weekend", "coffee", "run", "city", "night", "book"};
+        for (long id = 1; id <= 5000; id++) {
+            StringBuilder content = new StringBuilder();
+            int length = 3 + random.nextInt(20);
+            for (int i = 0; i < length; i++) {
+                //skewed so term frequencies and document frequencies vary
+                content.append(words[(int) Math.min(words.length - 1, Math.abs(random.nextGaussian()) * 3)]).append(' ');
+            }
+            index.add(id, content.toString(), random.nextInt(1_000_000), random.nextInt(200));
+            if (random.nextInt(10) == 0) {
+                index.remove(1 + random.nextInt((int) id));
+            }
+        }
+        Ranking ranking = new Ranking(1.2, 0.75, 1.0, 72, 1.0, 50);
+        for (String query : new String[]{"rock", "rock chess", "book OR night", "\"rock chess\" OR coffee", "city night book"}) {
+            SearchQuery parsed = SearchQuery.parse(query);
+            InvertedIndex.TopDocs wand = index.rank(parsed, 10, ranking, 1_000_000);
+            InvertedIndex.TopDocs exhaustive = index.rankExhaustive(parsed, 10, ranking, 1_000_000);
+            Assertions.assertArrayEquals(exhaustive.scores(), wand.scores(), 1e-9, query);
+            Assertions.assertTrue(wand.scored() <= exhaustive.scored(), query);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.socialmediaplatform.search;
+
+import com.example.socialmediaplatform.dto.FuzzyUserDTO;
+import com.example.socialmediaplatform.dto.UserRequestDTO;
+import com.example.socialmediaplatform.dto.UserTypeaheadDTO;
+import com.example.socialmediaplatform.model.Follow;
+import com.example.socialmediaplatform.model.User;
+import com.example.socialmediaplatform.repository.FollowRepository;
+import com.example.socialmediaplatform.repository.UserRepository;
+import com.example.socialmediaplatform.service.UserDeletionJob;
+import com.example.socialmediaplatform.service.UserService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+@SpringBootTest
+class UserTypeaheadIndexTest {
+
+    @Autowired
+    private UserTypeaheadIndex userTypeaheadIndex;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDeletionJob userDeletionJob;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    private Long zeerak;
+    private Long zubair;
+    private Long alice;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userTypeaheadIndex.rebuild();
+
+        zeerak = userService.createUser(new UserRequestDTO("Zeerak","zeerak@gmail.com","password","img.jpg","bio","USER")).getId();
+        zubair = userService.createUser(new UserRequestDTO("Zubair","zubair@gmail.com","password","img.jpg","bio","USER")).getId();
+        alice = userService.createUser(new UserRequestDTO("Alice","zed.alice@gmail.com","password","img.jpg","bio","USER")).getId();
+
+        //zubair has two followers, alice one
+        User bob = userRepository.save(new User(null,"Bob","bob@gmail.com","password","img.jpg","bio",null,null,null,null,null,"USER"));
+        User carol = userRepository.save(new User(null,"Carol","carol@gmail.com","password","img.jpg","bio",null,null,null,null,null,"USER"));
+        followRepository.save(new Follow(null, bob, userRepository.findById(zubair).orElseThrow()));
+        followRepository.save(new Follow(null, carol, userRepository.findById(zubair).orElseThrow()));
+        followRepository.save(new Follow(null, bob, userRepository.findById(alice).orElseThrow()));
+    }
+
+    private List<Long> ids(String query) {
+        return userService.typeahead(query, 10).stream().map(UserTypeaheadDTO::getId).toList();
+    }
+
+    @Test
+    void testPrefixesAreRankedByFollowers() {
+        //usernames and email local parts, case-insensitive
+        Assertions.assertEquals(List.of(zubair, alice, zeerak), ids("Z"));
+        Assertions.assertEquals(List.of(alice), ids("ali"));
+        Assertions.assertEquals(List.of(alice), ids("zed."));
+        Assertions.assertEquals(List.of(), ids("x"));
+        Assertions.assertEquals(1, userService.typeahead("z", 1).size());
+
+        //same answers once the overlay is folded into the snapshot
+        userTypeaheadIndex.refresh();
+        Assertions.assertEquals(List.of(zubair, alice, zeerak), ids("z"));
+        Assertions.assertEquals(2, userService.typeahead("z", 1).get(0).getFollowers());
+    }
+
+    @Test
+    void testUpdatesAndDeletesAreApplied() {
+        userTypeaheadIndex.refresh();
+
+        userService.updateUser(zeerak, new UserRequestDTO("Mark","mark@gmail.com","password","img.jpg","bio","USER"));
+        Assertions.assertEquals(List.of(zubair, alice), ids("z"));
+        Assertions.assertEquals(List.of(zeerak), ids("mar"));
+
+        userService.deleteUser(zubair);
+        Assertions.assertEquals(List.of(alice), ids("z"));
+        Assertions.assertTrue(userDeletionJob.await(zubair, 10000));
+
+        userTypeaheadIndex.refresh();
+        Assertions.assertEquals(List.of(alice), ids("z"));
+        Assertions.assertEquals(List.of(zeerak), ids("mark"));
+    }
+
+    @Test
+    void testFuzzyLookupRanksByDistanceThenFollowers() {
+        User zubeir = userRepository.findById(userService.createUser(new UserRequestDTO("Zubeir","zubeir@gmail.com","password","img.jpg","bio","USER")).getId()).orElseThrow();
+
+        for (boolean folded : new boolean[]{false, true}) {
+            if (folded) {
+                userTypeaheadIndex.refresh();
+            }
+            //one substitution away from both; zubair has more followers
+            List<FuzzyUserDTO> matches = userService.fuzzySearch("Zubiir", 10);
+            Assertions.assertEquals(List.of(zubair, zubeir.getId()), matches.stream().map(FuzzyUserDTO::getId).toList());
+            Assertions.assertEquals(1, matches.get(0).getDistance());
+
+            //exact match first, then one edit
+            Assertions.assertEquals(List.of(zubeir.getId(), zubair), userService.fuzzySearch("zubeir", 10).stream().map(FuzzyUserDTO::getId).toList());
+
+            //two edits for longer queries, usernames only (not email local parts)
+            Assertions.assertEquals(List.of(zeerak), userService.fuzzySearch("zeerk1", 10).stream().map(FuzzyUserDTO::getId).toList());
+            Assertions.assertEquals(List.of(), userService.fuzzySearch("zed.alic", 10));
+            //short queries allow one edit
+            Assertions.assertEquals(List.of(), userService.fuzzySearch("alx", 10));
+            Assertions.assertEquals(List.of(alice), userService.fuzzySearch("alce", 10).stream().map(FuzzyUserDTO::getId).toList());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.socialmediaplatform.security;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+@SpringBootTest
+class JwtTokenProviderTest {
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double count(String result) {
+        return meterRegistry.get("jwt.verify.cache").tag("result", result).counter().count();
+    }
+
+    @Test
+    void testVerifiedTokensAreCached() {
+        String token = jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken("Zeerak", null));
+        double hits = count("hit");
+        double misses = count("miss");
+
+        Assertions.assertEquals("Zeerak", jwtTokenProvider.verify(token).getSubject());
+        Assertions.assertEquals("Zeerak", jwtTokenProvider.getUsername(token));
+        Assertions.assertTrue(jwtTokenProvider.validateToken(token));
+
+        Assertions.assertEquals(misses + 1, count("miss"));
+        Assertions.assertEquals(hits + 2, count("hit"));
+    }
+
+    @Test
+    void testTamperedTokensAreRejected() {
+        String token = jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken("Zeerak", null));
+        jwtTokenProvider.verify(token);
+
+        //a different signature is a different cache key and fails verification
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        Assertions.assertThrows(JwtException.class, () -> jwtTokenProvider.verify(tampered));
+        Assertions.assertThrows(JwtException.class, () -> jwtTokenProvider.verify(tampered));
+    }
+
+    @Test
+    void testStatelessPrincipalComesFromClaims() {
+        UserPrincipal principal = new UserPrincipal(42L, "Zeerak", "", List.of(new SimpleGrantedAuthority("USER")));
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+        //off: tokens carry only the subject
+        Assertions.assertNull(jwtTokenProvider.principalOf(jwtTokenProvider.verify(jwtTokenProvider.generateToken(authentication))));
+
+        ReflectionTestUtils.setField(jwtTokenProvider, "statelessPrincipal", true);
+        try {
+            UserPrincipal resolved = jwtTokenProvider.principalOf(jwtTokenProvider.verify(jwtTokenProvider.generateToken(authentication)));
+            Assertions.assertEquals(42L, resolved.getId());
+            Assertions.assertEquals("Zeerak", resolved.getUsername());
+            Assertions.assertEquals("USER", resolved.getAuthorities().iterator().next().getAuthority());
+
+            //tokens issued before the mode was turned on still resolve through the database
+            Assertions.assertNull(jwtTokenProvider.principalOf(jwtTokenProvider.verify(
+                    jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken("Zeerak", null)))));
+        } finally {
+            ReflectionTestUtils.setField(jwtTokenProvider, "statelessPrincipal", false);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.socialmediaplatform.service;
+
+import com.example.socialmediaplatform.model.Post;
+import com.example.socialmediaplatform.model.User;
+import com.example.socialmediaplatform.repository.PostRepository;
+import com.example.socialmediaplatform.repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+class LikeCounterTest {
+
+    @Autowired
+    private LikeCounter likeCounter;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com","Zeerak","img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        post = postRepository.save(new Post(null,user,"My first post!",null,null,null));
+    }
+
+    @Test
+    void testConcurrentIncrementsAreFlushedExactlyOnce() throws Exception {
+        int threads = 8;
+        int likesPerThread = 5_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < likesPerThread; i++) {
+                        likeCounter.add(post.getId(), 1);
+                        if (i % 1000 == 0) {
+                            likeCounter.flush(); // flush while other threads keep adding
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long expected = (long) threads * likesPerThread;
+        long flushed = postRepository.findById(post.getId()).get().getLikeCount();
+        Assertions.assertEquals(expected, flushed + likeCounter.pending(post.getId()));
+
+        likeCounter.flush();
+        Assertions.assertEquals(0, likeCounter.pending(post.getId()));
+        Assertions.assertEquals(expected, postRepository.findById(post.getId()).get().getLikeCount());
+    }
+}
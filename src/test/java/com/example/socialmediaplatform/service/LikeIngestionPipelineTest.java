@@ -0,0 +1,91 @@
+package com.example.socialmediaplatform.service;
+
+import com.example.socialmediaplatform.model.Post;
+import com.example.socialmediaplatform.model.User;
+import com.example.socialmediaplatform.repository.LikeRepository;
+import com.example.socialmediaplatform.repository.PostRepository;
+import com.example.socialmediaplatform.repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest
+class LikeIngestionPipelineTest {
+
+    @Autowired
+    private LikeIngestionPipeline likeIngestionPipeline;
+
+    @Autowired
+    private LikeCounter likeCounter;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        likeRepository.deleteAll();
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+
+        users.clear();
+        for (int i = 0; i < 20; i++) {
+            users.add(userRepository.save(new User(null,"user" + i,"user" + i + "@gmail.com","password","img.jpg","bio",null,null,null,null,null,"USER")));
+        }
+        post = postRepository.save(new Post(null,users.get(0),"My first post!",null,null,null));
+    }
+
+    @Test
+    void testDuplicateLikesAreWrittenOnce() throws Exception {
+        //every user likes the post 5 times, concurrently
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int round = 0; round < 5; round++) {
+            for (User user : users) {
+                futures.add(CompletableFuture.supplyAsync(() -> likeIngestionPipeline.like(post.getId(), user.getId()))
+                        .thenCompose(written -> written));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(users.size(), likeRepository.count());
+
+        likeCounter.flush();
+        Assertions.assertEquals(users.size(), postRepository.findById(post.getId()).get().getLikeCount());
+    }
+
+    @Test
+    void testLikeOfMissingPostIsIgnored() throws Exception {
+        likeIngestionPipeline.like(post.getId() + 1, users.get(0).getId()).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(0, likeRepository.count());
+    }
+
+    @Test
+    void testLastOperationPerPairWins() throws Exception {
+        User user = users.get(1);
+        likeIngestionPipeline.like(post.getId(), user.getId());
+        likeIngestionPipeline.unlike(post.getId(), user.getId());
+        likeIngestionPipeline.like(post.getId(), user.getId()).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(1, likeRepository.count());
+
+        likeIngestionPipeline.unlike(post.getId(), user.getId()).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(0, likeRepository.count());
+
+        likeCounter.flush();
+        Assertions.assertEquals(0, postRepository.findById(post.getId()).get().getLikeCount());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.socialmediaplatform.service;
 
 import com.example.socialmediaplatform.dto.CommentResponseDTO;
+import com.example.socialmediaplatform.dto.PostCursor;
 import com.example.socialmediaplatform.dto.PostRequestDTO;
 import com.example.socialmediaplatform.dto.PostResponseDTO;
 import com.example.socialmediaplatform.model.*;
@@ -8,6 +9,11 @@ import com.example.socialmediaplatform.repository.CommentRepository;
 import com.example.socialmediaplatform.repository.LikeRepository;
 import com.example.socialmediaplatform.repository.PostRepository;
 import com.example.socialmediaplatform.repository.UserRepository;
+import com.example.socialmediaplatform.search.PostSearchIndex;
+import com.example.socialmediaplatform.security.UserPrincipal;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,7 +41,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class PostServiceTest {
     @Autowired
     private PostService postService;
@@ -55,6 +61,12 @@ class PostServiceTest {
     @Autowired
     private LikeRepository likeRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
 
     private SecurityContext securityContext;
 
@@ -299,6 +311,48 @@ class PostServiceTest {
 
     }
 
+    @Test
+    void testUpdateAndDeleteCheckOwnershipInOneStatement() {
+        user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        User user2 = userRepository.save(new User(null,"Zayyan","zayyan@gmail.com",passwordEncoder.encode("Zayyan"),"img.jpg","Likes Chess",null,null,null,null,null,"USER"));
+        Post post = postRepository.save(new Post(null,user1,"My first post!",null,null,null));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        authenticateAs(user2);
+        //not the owner: the UPDATE matches nothing and one probe finds the post
+        statistics.clear();
+        Assertions.assertThrows(AccessDeniedException.class, () -> postService.updatePost(post.getId(), new PostRequestDTO("Hijacked")));
+        Assertions.assertThrows(AccessDeniedException.class, () -> postService.deletePost(post.getId()));
+        Assertions.assertEquals(4, statistics.getPrepareStatementCount());
+
+        authenticateAs(user1);
+        //UPDATE, then the view and its comments for the response
+        statistics.clear();
+        PostResponseDTO updated = postService.updatePost(post.getId(), new PostRequestDTO("My edited post!"));
+        Assertions.assertEquals(3, statistics.getPrepareStatementCount());
+        Assertions.assertEquals("My edited post!", updated.getContent());
+        Assertions.assertEquals("Zeerak", updated.getUsername());
+        Assertions.assertArrayEquals(new long[]{post.getId()}, postSearchIndex.search("edited"));
+
+        statistics.clear();
+        postService.deletePost(post.getId());
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        Assertions.assertFalse(postRepository.existsById(post.getId()));
+        Assertions.assertEquals(0, postSearchIndex.search("edited").length);
+
+        RuntimeException exception = Assertions.assertThrows(RuntimeException.class, () -> postService.deletePost(post.getId()));
+        Assertions.assertEquals("Post not found", exception.getMessage());
+        exception = Assertions.assertThrows(RuntimeException.class, () -> postService.updatePost(post.getId(), new PostRequestDTO("Gone")));
+        Assertions.assertEquals("Post not found", exception.getMessage());
+    }
+
+    private void authenticateAs(User user) {
+        UserPrincipal principal = new UserPrincipal(user.getId(), user.getUsername(), "", List.of(new SimpleGrantedAuthority(user.getRole())));
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        SecurityContextHolder.setContext(context);
+    }
+
     @Test
     void testGetPostsByUserId() {
         user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
@@ -391,6 +445,161 @@ class PostServiceTest {
     }
 
 
+    @Test
+    void testFindAllAfter() {
+        user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        Assertions.assertNotNull(user1.getId());
+
+        postRepository.save(new Post(null,user1,"My first post!",null,null,null));
+        postRepository.save(new Post(null,user1,"My second post!",null,null,null));
+        postRepository.save(new Post(null,user1,"My third post!",null,null,null));
+
+        //First page, newest first
+        Slice<PostResponseDTO> first = postService.findAllAfter(null, 2);
+        Assertions.assertEquals(2, first.getContent().size());
+        Assertions.assertTrue(first.hasNext());
+        Assertions.assertEquals("My third post!", first.getContent().get(0).getContent());
+        Assertions.assertEquals("My second post!", first.getContent().get(1).getContent());
+
+        //The cursor survives an encode/decode round trip and continues after the last post
+        PostCursor cursor = PostCursor.decode(PostCursor.of(first.getContent().get(1)).encode());
+        Slice<PostResponseDTO> second = postService.findAllAfter(cursor, 2);
+        Assertions.assertEquals(1, second.getContent().size());
+        Assertions.assertFalse(second.hasNext());
+        Assertions.assertEquals("My first post!", second.getContent().get(0).getContent());
+
+        //Malformed cursors are rejected
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PostCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    void testListingUsesConstantStatementsPerPage() {
+        user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        User user2 = userRepository.save(new User(null,"Zayyan","zayyan@gmail.com",passwordEncoder.encode("Zayyan"),"img.jpg","Likes Chess",null,null,null,null,null,"USER"));
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(user2.getUsername(), null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        SecurityContextHolder.setContext(context);
+
+        //Every post gets comments and a like, which used to cost 3 lazy loads per post
+        for (int i = 1; i <= 6; i++) {
+            Post post = postRepository.save(new Post(null,user1,"Post " + i,null,null,null));
+            commentRepository.save(new Comment(null, post, user2, "First comment on " + i, null));
+            commentRepository.save(new Comment(null, post, user2, "Second comment on " + i, null));
+            postService.likePost(post.getId());
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        //page query + count query + one batched comment query, whatever the page size
+        for (int size : new int[]{2, 3}) {
+            statistics.clear();
+            Page<PostResponseDTO> page = postService.findAll(PageRequest.of(1, size));
+            Assertions.assertEquals(3, statistics.getPrepareStatementCount());
+            Assertions.assertEquals(size, page.getContent().size());
+            Assertions.assertEquals(6, page.getTotalElements());
+
+            PostResponseDTO first = page.getContent().get(0);
+            Assertions.assertEquals(2, first.getComments().size());
+            Assertions.assertEquals(1, first.getLikes());
+            Assertions.assertEquals("Zeerak", first.getUsername());
+        }
+
+        //the user listing has no count query
+        statistics.clear();
+        List<PostResponseDTO> posts = postService.getPostsByUserId(user1.getId());
+        Assertions.assertEquals(6, posts.size());
+        Assertions.assertEquals(3, statistics.getPrepareStatementCount()); // existence probe + posts + comments
+    }
+
+    @Test
+    void testGetPostByIdIsCachedUntilWritten() {
+        user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        Post post = postRepository.save(new Post(null,user1,"My first post!",null,null,null));
+        authenticateAs(user1);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        //the first read loads the post and its comments, the next ones are served from the cache
+        statistics.clear();
+        Assertions.assertEquals("My first post!", postService.getPostById(post.getId()).getContent());
+        Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+        statistics.clear();
+        Assertions.assertEquals("My first post!", postService.getPostById(post.getId()).getContent());
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+
+        //writes through PostService are visible on the next read
+        postService.updatePost(post.getId(), new PostRequestDTO("My edited post!"));
+        Assertions.assertEquals("My edited post!", postService.getPostById(post.getId()).getContent());
+        postService.likePost(post.getId());
+        Assertions.assertEquals(1, postService.getPostById(post.getId()).getLikes());
+        postService.addCommentToPost(post.getId(), new Comment(null, null, null, "Nice post!", null));
+        Assertions.assertEquals(1, postService.getPostById(post.getId()).getComments().size());
+
+        postService.deletePost(post.getId());
+        RuntimeException exception = Assertions.assertThrows(RuntimeException.class, () -> postService.getPostById(post.getId()));
+        Assertions.assertEquals("Post not found", exception.getMessage());
+    }
+
+    @Test
+    void testLikeAndUnlikeAreIdempotent() {
+        user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        Post post = postRepository.save(new Post(null,user1,"My first post!",null,null,null));
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(user1.getUsername(), null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        SecurityContextHolder.setContext(context);
+
+        //Retried likes are no-ops
+        Assertions.assertEquals(1, postService.likePost(post.getId()).getLikes());
+        Assertions.assertEquals(1, postService.likePost(post.getId()).getLikes());
+        Assertions.assertEquals(1, likeRepository.count());
+
+        //Retried unlikes are no-ops
+        Assertions.assertEquals(0, postService.unlikePost(post.getId()).getLikes());
+        Assertions.assertEquals(0, postService.unlikePost(post.getId()).getLikes());
+        Assertions.assertEquals(0, likeRepository.count());
+
+        //Missing posts are still reported
+        Long invalidId = post.getId() + 1;
+        RuntimeException exception = Assertions.assertThrows(RuntimeException.class, () -> postService.unlikePost(invalidId));
+        Assertions.assertEquals("Post not found", exception.getMessage());
+    }
+
+    @Test
+    void testWritesAttachReferences() {
+        user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+
+        //the principal set by JwtAuthenticationFilter carries the user id
+        UserPrincipal principal = new UserPrincipal(user1.getId(), user1.getUsername(), "", List.of(new SimpleGrantedAuthority("USER")));
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        SecurityContextHolder.setContext(context);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        //a single INSERT each
+        statistics.clear();
+        PostResponseDTO post = postService.createPost(new PostRequestDTO("My first Post!"));
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        Assertions.assertEquals("Zeerak", post.getUsername());
+        Assertions.assertNotNull(post.getCreatedAt());
+
+        statistics.clear();
+        postService.addCommentToPost(post.getId(), new Comment(null, null, null, "Nice post!", null));
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(1, commentRepository.count());
+        Assertions.assertEquals(user1.getId(), postRepository.findById(post.getId()).get().getUser().getId());
+
+        //missing posts are told apart from missing users after the insert fails
+        RuntimeException exception = Assertions.assertThrows(RuntimeException.class,
+                () -> postService.addCommentToPost(post.getId() + 1, new Comment(null, null, null, "Nice post!", null)));
+        Assertions.assertEquals("Post not found", exception.getMessage());
+
+        userRepository.deleteById(user1.getId());
+        exception = Assertions.assertThrows(RuntimeException.class, () -> postService.createPost(new PostRequestDTO("Too late")));
+        Assertions.assertEquals("User not found", exception.getMessage());
+    }
+
     @Test
     void testAddCommentToPost() {
         user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
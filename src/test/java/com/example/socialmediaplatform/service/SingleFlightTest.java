@@ -0,0 +1,92 @@
+package com.example.socialmediaplatform.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SingleFlightTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>("posts", meterRegistry);
+
+    @Test
+    void testConcurrentLoadsOfTheSameKeyShareOneCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> singleFlight.load(1L, id -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "post " + id;
+                })));
+            }
+            //the other seven join the first load while it is blocked
+            while (coalesced() < 7) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                Assertions.assertEquals("post 1", result.get(5, TimeUnit.SECONDS));
+            }
+            Assertions.assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //nothing is kept once the load is done
+        Assertions.assertEquals("post 1 again", singleFlight.load(1L, id -> "post " + id + " again"));
+    }
+
+    @Test
+    void testFailuresAreSharedAndForgetStartsANewLoad() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> singleFlight.load(1L, id -> {
+                started.countDown();
+                await(release);
+                throw new RuntimeException("Post not found");
+            }));
+            await(started);
+            Future<String> joined = executor.submit(() -> singleFlight.load(1L, id -> "not shared"));
+            while (coalesced() < 1) {
+                Thread.sleep(5);
+            }
+
+            //a caller after a write does not join the load in flight
+            singleFlight.forget(1L);
+            Assertions.assertEquals("fresh", singleFlight.load(1L, id -> "fresh"));
+
+            release.countDown();
+            ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("Post not found", exception.getCause().getMessage());
+            exception = Assertions.assertThrows(ExecutionException.class, () -> joined.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("Post not found", exception.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double coalesced() {
+        return meterRegistry.get("singleflight.coalesced").tag("loads", "posts").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.socialmediaplatform.service;
+
+import com.example.socialmediaplatform.dto.SuggestionDTO;
+import com.example.socialmediaplatform.model.Follow;
+import com.example.socialmediaplatform.model.User;
+import com.example.socialmediaplatform.repository.FollowRepository;
+import com.example.socialmediaplatform.repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest
+class SuggestionServiceTest {
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        users.clear();
+        for (int i = 0; i < 6; i++) {
+            users.add(userRepository.save(new User(null,"user" + i,"user" + i + "@gmail.com","password","img.jpg","bio",null,null,null,null,null,"USER")));
+        }
+    }
+
+    private void follow(int follower, int following) {
+        followRepository.save(new Follow(null, users.get(follower), users.get(following)));
+    }
+
+    @Test
+    void testSuggestionsAreRankedBySecondDegreePaths() {
+        //user0 follows user1 and user2; they follow user3 (twice), user4 (once) and back to user0
+        follow(0, 1);
+        follow(0, 2);
+        follow(1, 3);
+        follow(2, 3);
+        follow(2, 4);
+        follow(1, 0);
+        follow(1, 2);
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken("user0", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        SecurityContextHolder.setContext(context);
+
+        //the user and already followed accounts are excluded
+        List<SuggestionDTO> suggestions = suggestionService.getSuggestions(10);
+        Assertions.assertEquals(List.of("user3", "user4"), suggestions.stream().map(SuggestionDTO::getUsername).toList());
+        Assertions.assertEquals(2, suggestions.get(0).getMutualConnections());
+        Assertions.assertEquals(1, suggestions.get(1).getMutualConnections());
+
+        Assertions.assertEquals(1, suggestionService.getSuggestions(1).size());
+
+        //following a suggestion drops it from the cached result
+        userService.followUser(users.get(3).getId());
+        suggestions = suggestionService.getSuggestions(10);
+        Assertions.assertEquals(List.of("user4"), suggestions.stream().map(SuggestionDTO::getUsername).toList());
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.socialmediaplatform.service;
+
+import com.example.socialmediaplatform.dto.FeedResponseDTO;
+import com.example.socialmediaplatform.dto.PostRequestDTO;
+import com.example.socialmediaplatform.dto.PostResponseDTO;
+import com.example.socialmediaplatform.model.Follow;
+import com.example.socialmediaplatform.model.User;
+import com.example.socialmediaplatform.repository.FollowRepository;
+import com.example.socialmediaplatform.repository.PostRepository;
+import com.example.socialmediaplatform.repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+@SpringBootTest
+class TimelineServiceTest {
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDeletionJob userDeletionJob;
+
+    private User reader;
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+
+        reader = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        author = userRepository.save(new User(null,"Zayyan","zayyan@gmail.com",passwordEncoder.encode("Zayyan"),"img.jpg","Likes Chess",null,null,null,null,null,"USER"));
+        followRepository.save(new Follow(null, reader, author));
+        timelineService.invalidate(reader.getId());
+    }
+
+    private void loginAs(User user) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(user.getUsername(), null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole()))));
+        SecurityContextHolder.setContext(context);
+    }
+
+    @Test
+    void testFeedIsBackfilledAndThenPushed() {
+        loginAs(author);
+        postService.createPost(new PostRequestDTO("Before the feed was read"));
+
+        // First read backfills the cold timeline from the database
+        loginAs(reader);
+        FeedResponseDTO feed = timelineService.getHomeFeed(null, 10);
+        Assertions.assertEquals(1, feed.getPosts().size());
+        Assertions.assertNull(feed.getNextCursor());
+
+        // Later posts are pushed into the materialised timeline
+        loginAs(author);
+        postService.createPost(new PostRequestDTO("After the feed was read"));
+
+        loginAs(reader);
+        feed = timelineService.getHomeFeed(null, 10);
+        Assertions.assertEquals(2, feed.getPosts().size());
+        Assertions.assertEquals("After the feed was read", feed.getPosts().get(0).getContent());
+    }
+
+    @Test
+    void testFeedCursorPaging() {
+        loginAs(author);
+        for (int i = 1; i <= 5; i++) {
+            postService.createPost(new PostRequestDTO("Post " + i));
+        }
+
+        loginAs(reader);
+        FeedResponseDTO first = timelineService.getHomeFeed(null, 3);
+        Assertions.assertEquals(3, first.getPosts().size());
+        Assertions.assertEquals("Post 5", first.getPosts().get(0).getContent());
+        Assertions.assertNotNull(first.getNextCursor());
+
+        FeedResponseDTO second = timelineService.getHomeFeed(first.getNextCursor(), 3);
+        Assertions.assertEquals(2, second.getPosts().size());
+        Assertions.assertEquals("Post 2", second.getPosts().get(0).getContent());
+        Assertions.assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testFeedPageSizeIsClamped() {
+        loginAs(author);
+        postService.createPost(new PostRequestDTO("Post 1"));
+        postService.createPost(new PostRequestDTO("Post 2"));
+
+        //zero and negative sizes return one post instead of failing
+        loginAs(reader);
+        FeedResponseDTO feed = timelineService.getHomeFeed(null, 0);
+        Assertions.assertEquals(1, feed.getPosts().size());
+        Assertions.assertNotNull(feed.getNextCursor());
+        Assertions.assertEquals(1, timelineService.getHomeFeed(null, -5).getPosts().size());
+    }
+
+    @Test
+    void testHighFollowerAuthorIsPulledAndMerged() {
+        User other = userRepository.save(new User(null,"Areej","areej@gmail.com",passwordEncoder.encode("Areej"),"img.jpg","Likes Painting",null,null,null,null,null,"USER"));
+        followRepository.save(new Follow(null, reader, other));
+
+        // Zayyan has 1 follower, which is over a threshold of 0, so his posts are pulled at read time
+        ReflectionTestUtils.setField(timelineService, "fanoutThreshold", 0L);
+        try {
+            timelineService.invalidate(reader.getId());
+
+            loginAs(author);
+            postService.createPost(new PostRequestDTO("Pulled 1"));
+            loginAs(other);
+            postService.createPost(new PostRequestDTO("Pulled 2"));
+            loginAs(author);
+            postService.createPost(new PostRequestDTO("Pulled 3"));
+
+            loginAs(reader);
+            FeedResponseDTO feed = timelineService.getHomeFeed(null, 10);
+            Assertions.assertEquals(List.of("Pulled 3", "Pulled 2", "Pulled 1"),
+                    feed.getPosts().stream().map(PostResponseDTO::getContent).toList());
+        } finally {
+            ReflectionTestUtils.setField(timelineService, "fanoutThreshold", 10000L);
+            timelineService.invalidate(reader.getId());
+        }
+    }
+
+    @Test
+    void testAuthorDroppingToThresholdIsPushedWithItsPulledPosts() {
+        User other = userRepository.save(new User(null,"Areej","areej@gmail.com",passwordEncoder.encode("Areej"),"img.jpg","Likes Painting",null,null,null,null,null,"USER"));
+        followRepository.save(new Follow(null, other, author));
+
+        // Zayyan has 2 followers, over a threshold of 1, so his posts are pulled
+        ReflectionTestUtils.setField(timelineService, "fanoutThreshold", 1L);
+        ReflectionTestUtils.setField(timelineService, "pullAuthorsRefreshMs", 0L);
+        try {
+            timelineService.invalidate(reader.getId());
+            loginAs(reader);
+            Assertions.assertEquals(0, timelineService.getHomeFeed(null, 10).getPosts().size());
+
+            loginAs(author);
+            postService.createPost(new PostRequestDTO("While pulled"));
+
+            // back to 1 follower: pushed from now on, and the post from while pulled is still in the feed
+            userService.deleteUser(other.getId());
+            Assertions.assertTrue(userDeletionJob.await(other.getId(), 10000));
+            loginAs(author);
+            postService.createPost(new PostRequestDTO("While pushed"));
+
+            loginAs(reader);
+            FeedResponseDTO feed = timelineService.getHomeFeed(null, 10);
+            Assertions.assertEquals(List.of("While pushed", "While pulled"),
+                    feed.getPosts().stream().map(PostResponseDTO::getContent).toList());
+        } finally {
+            ReflectionTestUtils.setField(timelineService, "fanoutThreshold", 10000L);
+            ReflectionTestUtils.setField(timelineService, "pullAuthorsRefreshMs", 60000L);
+            timelineService.invalidate(reader.getId());
+        }
+    }
+}
@@ -1,10 +1,23 @@
 package com.example.socialmediaplatform.service;
 
 import com.example.socialmediaplatform.dto.*;
+import com.example.socialmediaplatform.model.Comment;
 import com.example.socialmediaplatform.model.Follow;
+import com.example.socialmediaplatform.model.Like;
+import com.example.socialmediaplatform.model.Post;
+import com.example.socialmediaplatform.model.PostLikeId;
 import com.example.socialmediaplatform.model.User;
+import com.example.socialmediaplatform.repository.CommentRepository;
 import com.example.socialmediaplatform.repository.FollowRepository;
+import com.example.socialmediaplatform.repository.LikeRepository;
+import com.example.socialmediaplatform.repository.PostRepository;
 import com.example.socialmediaplatform.repository.UserRepository;
+import com.example.socialmediaplatform.security.CustomUserDetailsService;
+import com.example.socialmediaplatform.security.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,13 +26,18 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import static org.junit.jupiter.api.Assertions.*;
 import java.util.List;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class UserServiceTest {
 
     @Autowired
@@ -31,12 +49,39 @@ class UserServiceTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private PostService postService;
+
     private User user1;
 
     private User user2;
     @Autowired
     private FollowRepository followRepository;
 
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserDeletionJob userDeletionJob;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private LikeCounter likeCounter;
+
     @BeforeEach
     void setUp() {
         userRepository.deleteAll();
@@ -108,6 +153,32 @@ class UserServiceTest {
         Assertions.assertEquals("User not found", exception.getMessage());
     }
 
+    @Test
+    void testGetUserSummary() {
+        user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        user2 = userRepository.save(new User(null,"Zayyan","zayyan@gmail.com",passwordEncoder.encode("Zayyan"),"img.jpg","Likes Chess",null,null,null,null,null,"USER"));
+        User user3 = userRepository.save(new User(null,"Areej","areej@gmail.com",passwordEncoder.encode("Areej"),"img.jpg","Likes Painting",null,null,null,null,null,"USER"));
+
+        Post post1 = postRepository.save(new Post(null,user1,"My first post!",null,null,null));
+        Post post2 = postRepository.save(new Post(null,user2,"My second post!",null,null,null));
+        followRepository.save(new Follow(null, user2, user1));
+        followRepository.save(new Follow(null, user3, user1));
+        followRepository.save(new Follow(null, user1, user2));
+        likeRepository.save(new Like(new PostLikeId(post2.getId(), user1.getId()), post2, user1));
+
+        UserSummaryDTO summary = userService.getUserSummary(user1.getId());
+        Assertions.assertEquals("Zeerak", summary.getUsername());
+        Assertions.assertEquals("zeerak@gmail.com", summary.getEmail());
+        Assertions.assertEquals("Likes Rock Climbing", summary.getBio());
+        Assertions.assertEquals(1, summary.getPosts());
+        Assertions.assertEquals(2, summary.getFollowers());
+        Assertions.assertEquals(1, summary.getFollowing());
+        Assertions.assertEquals(1, summary.getLikes());
+
+        RuntimeException exception = Assertions.assertThrows(RuntimeException.class, () -> userService.getUserSummary(user3.getId() + 1));
+        Assertions.assertEquals("User not found", exception.getMessage());
+    }
+
     @Test
     void testGetAllUsers_ReturnsUsers() {
         user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
@@ -162,4 +233,168 @@ class UserServiceTest {
         Assertions.assertEquals(followerResponseDTOS.size(), 2);
     }
 
+    @Test
+    void testFollowUserRejectsDuplicates() {
+        user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        user2 = userRepository.save(new User(null,"Zayyan","zayyan@gmail.com",passwordEncoder.encode("Zayyan"),"img.jpg","Likes Chess",null,null,null,null,null,"USER"));
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(user1.getUsername(), null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        SecurityContextHolder.setContext(context);
+
+        FollowingResponseDTO response = userService.followUser(user2.getId());
+        Assertions.assertEquals("Zayyan", response.getUsername());
+
+        //The second follow is caught by the graph index before reaching the database
+        RuntimeException exception = Assertions.assertThrows(RuntimeException.class, () -> userService.followUser(user2.getId()));
+        Assertions.assertEquals("Already following", exception.getMessage());
+        Assertions.assertEquals(1, followRepository.count());
+    }
+
+    @Test
+    void testFollowUserReferencesTheFollower() {
+        user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        user2 = userRepository.save(new User(null,"Zayyan","zayyan@gmail.com",passwordEncoder.encode("Zayyan"),"img.jpg","Likes Chess",null,null,null,null,null,"USER"));
+
+        UserPrincipal principal = new UserPrincipal(user1.getId(), user1.getUsername(), "", List.of(new SimpleGrantedAuthority("USER")));
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        SecurityContextHolder.setContext(context);
+
+        //the target is read for the response, the follow is inserted by reference
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Assertions.assertEquals("Zayyan", userService.followUser(user2.getId()).getUsername());
+        Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(1, followRepository.count());
+    }
+
+    @Test
+    void testGetFollowersPage() {
+        user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        for (int i = 0; i < 5; i++) {
+            User follower = userRepository.save(new User(null,"follower" + i,"follower" + i + "@gmail.com","password","img.jpg","bio",null,null,null,null,null,"USER"));
+            followRepository.save(new Follow(null, follower, user1));
+        }
+
+        //Pages of 2 in follow order, following the cursor until it runs out
+        CursorPageDTO<FollowerResponseDTO> page = userService.getFollowersPage(user1.getId(), null, 2);
+        Assertions.assertEquals(List.of("follower0", "follower1"), page.getItems().stream().map(FollowerResponseDTO::getUsername).toList());
+        Assertions.assertNotNull(page.getNextCursor());
+
+        page = userService.getFollowersPage(user1.getId(), page.getNextCursor(), 2);
+        Assertions.assertEquals(List.of("follower2", "follower3"), page.getItems().stream().map(FollowerResponseDTO::getUsername).toList());
+
+        page = userService.getFollowersPage(user1.getId(), page.getNextCursor(), 2);
+        Assertions.assertEquals(List.of("follower4"), page.getItems().stream().map(FollowerResponseDTO::getUsername).toList());
+        Assertions.assertNull(page.getNextCursor());
+
+        //The other direction
+        User follower0 = userRepository.findByUsernameOrEmail("follower0", "follower0").get();
+        CursorPageDTO<FollowingResponseDTO> following = userService.getFollowingPage(follower0.getId(), null, 2);
+        Assertions.assertEquals(1, following.getItems().size());
+        Assertions.assertEquals("Zeerak", following.getItems().get(0).getUsername());
+        Assertions.assertNull(following.getNextCursor());
+
+        RuntimeException exception = Assertions.assertThrows(RuntimeException.class, () -> userService.getFollowersPage(-1L, null, 2));
+        Assertions.assertEquals("User not found", exception.getMessage());
+    }
+
+    @Test
+    void testFollowPageSizeIsClamped() {
+        user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        for (int i = 0; i < 3; i++) {
+            User follower = userRepository.save(new User(null,"follower" + i,"follower" + i + "@gmail.com","password","img.jpg","bio",null,null,null,null,null,"USER"));
+            followRepository.save(new Follow(null, follower, user1));
+        }
+
+        //zero and negative sizes return one follower instead of failing
+        CursorPageDTO<FollowerResponseDTO> page = userService.getFollowersPage(user1.getId(), null, 0);
+        Assertions.assertEquals(1, page.getItems().size());
+        Assertions.assertNotNull(page.getNextCursor());
+        Assertions.assertEquals(1, userService.getFollowersPage(user1.getId(), null, -5).getItems().size());
+
+        //oversized pages are cut to max-page-size
+        ReflectionTestUtils.setField(AopTestUtils.getTargetObject(userService), "followsMaxPageSize", 2);
+        try {
+            page = userService.getFollowersPage(user1.getId(), null, 1000000);
+            Assertions.assertEquals(2, page.getItems().size());
+            Assertions.assertNotNull(page.getNextCursor());
+        } finally {
+            ReflectionTestUtils.setField(AopTestUtils.getTargetObject(userService), "followsMaxPageSize", 200);
+        }
+    }
+
+    @Test
+    void testCachedPrincipalIsInvalidatedOnUpdateAndDelete() {
+        user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        double hits = meterRegistry.get("security.user.cache").tag("result", "hit").counter().count();
+
+        Assertions.assertEquals("USER", customUserDetailsService.loadPrincipal("Zeerak").getAuthorities().iterator().next().getAuthority());
+        customUserDetailsService.loadPrincipal("Zeerak");
+        Assertions.assertEquals(hits + 1, meterRegistry.get("security.user.cache").tag("result", "hit").counter().count());
+
+        //renamed: the old name no longer resolves
+        userService.updateUser(user1.getId(), new UserRequestDTO("Zeerak2","zeerak@gmail.com","Zeerak","img.jpg","bio","USER"));
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> customUserDetailsService.loadPrincipal("Zeerak"));
+        Assertions.assertNotNull(customUserDetailsService.loadPrincipal("zeerak@gmail.com"));
+
+        userService.deleteUser(user1.getId());
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> customUserDetailsService.loadPrincipal("zeerak@gmail.com"));
+        Assertions.assertTrue(userDeletionJob.await(user1.getId(), 10000));
+    }
+
+    @Test
+    void testDeleteUserRemovesRowsInTheBackground() {
+        user1 = userRepository.save(new User(null,"Zeerak","zeerak@gmail.com",passwordEncoder.encode("Zeerak"),"img.jpg","Likes Rock Climbing",null,null,null,null,null,"USER"));
+        user2 = userRepository.save(new User(null,"Zayyan","zayyan@gmail.com",passwordEncoder.encode("Zayyan"),"img.jpg","Likes Chess",null,null,null,null,null,"USER"));
+        Post post1 = postRepository.save(new Post(null, user1, "Zeerak's post", null, null, null));
+        Post post2 = postRepository.save(new Post(null, user2, "Zayyan's post", null, null, null));
+        commentRepository.save(new Comment(null, post1, user2, "Nice!", null));
+        commentRepository.save(new Comment(null, post2, user1, "Thanks!", null));
+        likeRepository.save(new Like(new PostLikeId(post1.getId(), user2.getId()), post1, user2));
+        likeRepository.save(new Like(new PostLikeId(post2.getId(), user1.getId()), post2, user1));
+        followRepository.save(new Follow(null, user1, user2));
+        followRepository.save(new Follow(null, user2, user1));
+        long likesOfPost2 = likesOf(post2.getId());
+
+        //hidden right away
+        UserDeletionDTO accepted = userService.deleteUser(user1.getId());
+        Assertions.assertEquals(user1.getId(), accepted.getUserId());
+        Assertions.assertThrows(RuntimeException.class, () -> userService.getUserById(user1.getId()));
+        Assertions.assertThrows(RuntimeException.class, () -> userService.getUserSummary(user1.getId()));
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> customUserDetailsService.loadPrincipal("Zeerak"));
+        Assertions.assertEquals(0, userService.search("Zeerak", 0, 10).getTotalElements());
+        Assertions.assertEquals(List.of(user2.getId()), userService.findAll(PageRequest.of(0, 10)).map(User::getId).getContent());
+        Assertions.assertThrows(RuntimeException.class, () -> userService.getFollowersPage(user1.getId(), null, 10));
+        Assertions.assertThrows(RuntimeException.class, () -> userService.getFollowingPage(user1.getId(), null, 10));
+        Assertions.assertTrue(userService.getFollowersPage(user2.getId(), null, 10).getItems().isEmpty());
+        Assertions.assertTrue(userService.getFollowingPage(user2.getId(), null, 10).getItems().isEmpty());
+        Assertions.assertTrue(userService.getFollowers(user2.getId()).isEmpty());
+        Assertions.assertThrows(RuntimeException.class, () -> postService.getPostById(post1.getId()));
+        List<CommentResponseDTO> comments = postService.getPostById(post2.getId()).getComments();
+        Assertions.assertTrue(comments == null || comments.isEmpty());
+
+        //and its rows removed in the background
+        Assertions.assertTrue(userDeletionJob.await(user1.getId(), 10000));
+        UserDeletionDTO progress = userService.deletionProgress(user1.getId());
+        Assertions.assertEquals("DONE", progress.getStatus());
+        Assertions.assertEquals(1, progress.getPostsDeleted());
+        Assertions.assertEquals(2, progress.getCommentsDeleted());
+        Assertions.assertEquals(2, progress.getLikesDeleted());
+        Assertions.assertEquals(2, progress.getFollowsDeleted());
+
+        Assertions.assertFalse(userRepository.existsById(user1.getId()));
+        Assertions.assertEquals(List.of(post2.getId()), postRepository.findAll().stream().map(Post::getId).toList());
+        Assertions.assertEquals(0, commentRepository.count());
+        Assertions.assertEquals(0, likeRepository.count());
+        Assertions.assertEquals(0, followRepository.count());
+        //the like given by the deleted user is taken off the post's counter
+        Assertions.assertEquals(likesOfPost2 - 1, likesOf(post2.getId()));
+    }
+
+    private long likesOf(Long postId) {
+        return postRepository.findById(postId).get().getLikeCount() + likeCounter.pending(postId);
+    }
+
 }